@@ -124,9 +124,15 @@ class AccountHttpController {
     const authority = parseAuthority(request);
     const id = request.queryParameters?.id?.[0];
     const name = request.queryParameters?.name?.[0];
+    const ids = name == null && request.queryParameters?.id?.length > 1 ? request.queryParameters.id : null;
     let output;
     try {
-      output = await this.#accountService.readAccount(authority, id, name);
+      if (ids != null) {
+        output = await this.#accountService.readAccounts(authority, ids);
+      }
+      else {
+        output = await this.#accountService.readAccount(authority, id, name);
+      }
     }
     catch (e) {
       return {
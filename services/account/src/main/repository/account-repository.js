@@ -3,6 +3,8 @@ class AccountRepository {
 
   async readByIdAndName(id, name) { }
 
+  async readByIds(ids) { }
+
   async create(account) { }
 
   async updateByIdAndName(id, name, account) { }
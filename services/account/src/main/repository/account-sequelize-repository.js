@@ -66,6 +66,32 @@ class AccountSequelizeRepository extends AccountRepository {
     }
   }
 
+  async readByIds(ids) {
+    if (!(ids instanceof Array) || ids.length == 0) {
+      throw new IllegalArgumentError();
+    }
+    for (const id of ids) {
+      if (typeof id !== 'string' || id.length > idMaxLength) {
+        throw new IllegalArgumentError();
+      }
+    }
+    await this.#openSequelize();
+    try {
+      return await this.#sequelize.models.accounts.findAll({
+        raw: true,
+        where: {
+          id: ids
+        }
+      });
+    }
+    catch (e) {
+      throw wrapError(e, 'Failed to execute database transaction');
+    }
+    finally {
+      await this.#closeSequelize();
+    }
+  }
+
   async create(account) {
     if (account == null || !validateAccount(account)) {
       throw new IllegalArgumentError();
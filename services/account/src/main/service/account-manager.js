@@ -187,6 +187,40 @@ class AccountManager extends AccountService {
     return match;
   }
 
+  async readAccounts(authority, ids) {
+    if (!validateAuthority(authority)) {
+      throw new IllegalArgumentError();
+    }
+    if (!(ids instanceof Array) || ids.length == 0 || ids.length > readAccountsIdsMaxCount) {
+      throw new IllegalArgumentError();
+    }
+    for (const id of ids) {
+      if (id == null || !validateId(id)) {
+        throw new IllegalArgumentError();
+      }
+    }
+    const authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, Role.System | Role.Admin);
+    const matches = await (async () => {
+      try {
+        return await this.#accountRepository.readByIds(ids);
+      }
+      catch (e) {
+        throw wrapError(e, 'Failed to read from account store');
+      }
+    })();
+    const matchesById = new Map();
+    for (const match of matches) {
+      const owner = match.id === authority?.id;
+      if (!authorizedAsSystemOrAdmin && !owner) {
+        delete match.name;
+      }
+      delete match.passwordHash;
+      delete match.passwordSalt;
+      matchesById.set(match.id.toLowerCase(), match);
+    }
+    return ids.map((id) => matchesById.get(id.toLowerCase()) ?? null);
+  }
+
   async createAccount(authority, account) {
     if (!validateAuthority(authority)) {
       throw new IllegalArgumentError();
@@ -646,6 +680,7 @@ const rolesMaxValue = 255;
 const timeMaxValue = 4294967295;
 const refreshTokenAllowedChars = '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz';
 const refreshTokenLength = 128;
+const readAccountsIdsMaxCount = 1000;
 const nameAllowedChars = '-.0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz';
 const nameMinLength = 4;
 const nameMaxLength = 32;
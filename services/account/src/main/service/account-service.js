@@ -7,6 +7,8 @@ class AccountService {
 
   async readAccount(authority, id, name) { }
 
+  async readAccounts(authority, ids) { }
+
   async createAccount(authority, account) { }
 
   async updateAccount(authority, id, name, account) { }
@@ -200,6 +200,33 @@ const testReadAccount = async () => {
   }
 };
 
+const testReadAccounts = async () => {
+  accountRepositorySpy.resetSpy();
+  accountRepositorySpy.readByIdsReturnValue = [
+    {
+      id: accountId,
+      name: accountName,
+      passwordHash: accountPasswordHash,
+      passwordSalt: accountPasswordSalt,
+      roles: accountRoles
+    }
+  ];
+  const authority = {
+    roles: Role.System
+  };
+  const ids = [ accountId, '00000000-0000-0000-0000-000000000001' ];
+  const output = await accountManager.readAccounts(authority, ids);
+  if (accountRepositorySpy.readByIdsInvokeCount != 1) {
+    throw new Error('Actual value does not match expected value: AccountRepository.readByIds(): Invocation count');
+  }
+  if (accountRepositorySpy.readByIdsIdsArgument !== ids) {
+    throw new Error('Actual value does not match expected value: AccountRepository.readByIds(): ids argument');
+  }
+  if (output == null || output.length != 2 || output[0].id !== accountId || output[0].passwordHash != null || output[0].passwordSalt != null || output[1] !== null) {
+    throw new Error('Actual value does not match expected value: AccountManager.readAccounts(): Return value');
+  }
+};
+
 const testCreateAccount = async () => {
   accountRepositorySpy.resetSpy();
   accountRepositorySpy.createReturnValue = {
@@ -391,6 +418,7 @@ const tests = [
   { name: 'Logout with account ID', run: testLogoutAccountId },
   { name: 'Logout with refresh token', run: testLogoutRefreshToken },
   { name: 'Read account', run: testReadAccount },
+  { name: 'Read accounts', run: testReadAccounts },
   { name: 'Create account', run: testCreateAccount },
   { name: 'Update account', run: testUpdateAccount },
   { name: 'Delete account', run: testDeleteAccount },
@@ -8,6 +8,9 @@ class AccountRepositorySpy extends AccountRepository {
   #readByIdAndNameInvokeCount = 0;
   #readByIdAndNameIdArgument;
   #readByIdAndNameNameArgument;
+  #readByIdsReturnValue;
+  #readByIdsInvokeCount = 0;
+  #readByIdsIdsArgument;
   #createReturnValue;
   #createInvokeCount = 0;
   #createAccountArgument;
@@ -34,6 +37,12 @@ class AccountRepositorySpy extends AccountRepository {
     return this.#readByIdAndNameReturnValue;
   }
 
+  async readByIds(ids) {
+    this.#readByIdsInvokeCount++;
+    this.#readByIdsIdsArgument = ids;
+    return this.#readByIdsReturnValue;
+  }
+
   async create(account) {
     this.#createInvokeCount++;
     this.#createAccountArgument = account;
@@ -61,6 +70,8 @@ class AccountRepositorySpy extends AccountRepository {
     this.#readByIdAndNameInvokeCount = 0;
     this.#readByIdAndNameIdArgument = undefined;
     this.#readByIdAndNameNameArgument = undefined;
+    this.#readByIdsInvokeCount = 0;
+    this.#readByIdsIdsArgument = undefined;
     this.#createInvokeCount = 0;
     this.#createAccountArgument = undefined;
     this.#updateByIdAndNameInvokeCount = 0;
@@ -100,6 +111,18 @@ class AccountRepositorySpy extends AccountRepository {
     return this.#readByIdAndNameNameArgument;
   }
 
+  set readByIdsReturnValue(readByIdsReturnValue) {
+    this.#readByIdsReturnValue = readByIdsReturnValue;
+  }
+
+  get readByIdsInvokeCount() {
+    return this.#readByIdsInvokeCount;
+  }
+
+  get readByIdsIdsArgument() {
+    return this.#readByIdsIdsArgument;
+  }
+
   set createReturnValue(createReturnValue) {
     this.#createReturnValue = createReturnValue;
   }
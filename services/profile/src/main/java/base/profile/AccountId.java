@@ -0,0 +1,94 @@
+package base.profile;
+
+import java.util.UUID;
+
+public class AccountId {
+    private static final int LENGTH = 36;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private AccountId() { }
+
+    public static boolean isValid(String value) {
+        if (value == null || value.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char letter = value.charAt(i);
+            if (isSeparatorIndex(i) ? letter != '-' : hexValue(letter) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static UUID parse(String value) {
+        if (value == null || value.length() != LENGTH) {
+            return null;
+        }
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digitCount = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char letter = value.charAt(i);
+            if (isSeparatorIndex(i)) {
+                if (letter != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = hexValue(letter);
+            if (digit < 0) {
+                return null;
+            }
+            if (digitCount++ < 16) {
+                mostSignificantBits = mostSignificantBits << 4 | digit;
+            }
+            else {
+                leastSignificantBits = leastSignificantBits << 4 | digit;
+            }
+        }
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    public static String format(UUID value) {
+        if (value == null) {
+            return null;
+        }
+        char[] output = new char[LENGTH];
+        long mostSignificantBits = value.getMostSignificantBits();
+        long leastSignificantBits = value.getLeastSignificantBits();
+        int digitCount = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            if (isSeparatorIndex(i)) {
+                output[i] = '-';
+                continue;
+            }
+            long bits = digitCount < 16 ? mostSignificantBits : leastSignificantBits;
+            output[i] = HEX_DIGITS[(int) (bits >>> (60 - (digitCount % 16) * 4)) & 0xf];
+            digitCount++;
+        }
+        return new String(output);
+    }
+
+    public static String normalize(String value) {
+        UUID parsedValue = parse(value);
+        return parsedValue == null ? value : format(parsedValue);
+    }
+
+    private static boolean isSeparatorIndex(int index) {
+        return index == 8 || index == 13 || index == 18 || index == 23;
+    }
+
+    private static int hexValue(char letter) {
+        if (letter >= '0' && letter <= '9') {
+            return letter - '0';
+        }
+        if (letter >= 'a' && letter <= 'f') {
+            return letter - 'a' + 10;
+        }
+        if (letter >= 'A' && letter <= 'F') {
+            return letter - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,241 @@
+package base.profile;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public abstract class AmqpBatchingConsumer extends DefaultConsumer {
+    private static final long CONFIRM_TIMEOUT = 5000;
+    private static final AtomicInteger nextLaneKey = new AtomicInteger();
+    private final KeyedExecutor executor;
+    private final ScheduledExecutorService timer;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final AmqpRetryPolicy retryPolicy;
+    private final Integer laneKey = nextLaneKey.getAndIncrement();
+    private List<Delivery> pendingDeliveries = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private boolean confirmsEnabled;
+
+    public AmqpBatchingConsumer(Channel channel, KeyedExecutor executor, ScheduledExecutorService timer, int batchSize, long batchTimeout) {
+        this(channel, executor, timer, batchSize, batchTimeout, null);
+    }
+
+    public AmqpBatchingConsumer(Channel channel, KeyedExecutor executor, ScheduledExecutorService timer, int batchSize, long batchTimeout, AmqpRetryPolicy retryPolicy) {
+        super(channel);
+        if (executor == null || timer == null || batchSize <= 0 || batchTimeout < 0) {
+            throw new RuntimeException("Invalid arguments provided to AmqpBatchingConsumer constructor");
+        }
+        this.executor = executor;
+        this.timer = timer;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+        synchronized (this) {
+            pendingDeliveries.add(new Delivery(envelope, properties, body));
+            if (pendingDeliveries.size() >= batchSize || batchTimeout == 0) {
+                submitBatch(takePendingDeliveries());
+            }
+            else if (flushTask == null) {
+                try {
+                    flushTask = timer.schedule(this::flushPendingDeliveries, batchTimeout, TimeUnit.MILLISECONDS);
+                }
+                catch (RejectedExecutionException ignored) { }
+            }
+        }
+    }
+
+    protected abstract Outcome[] handleBatch(List<Delivery> deliveries);
+
+    private synchronized void flushPendingDeliveries() {
+        flushTask = null;
+        if (pendingDeliveries.isEmpty()) {
+            return;
+        }
+        submitBatch(takePendingDeliveries());
+    }
+
+    private List<Delivery> takePendingDeliveries() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        List<Delivery> batch = pendingDeliveries;
+        pendingDeliveries = new ArrayList<>();
+        return batch;
+    }
+
+    private void submitBatch(List<Delivery> batch) {
+        try {
+            executor.execute(laneKey, () -> processBatch(batch));
+        }
+        catch (RejectedExecutionException ignored) { }
+    }
+
+    private void processBatch(List<Delivery> batch) {
+        Outcome[] outcomes;
+        try {
+            outcomes = handleBatch(batch);
+        }
+        catch (Exception e) {
+            System.out.println("Unexpected exception while handling AMQP delivery batch:\n" + e);
+            outcomes = null;
+        }
+        if (outcomes == null || outcomes.length != batch.size()) {
+            outcomes = new Outcome[batch.size()];
+            Arrays.fill(outcomes, Outcome.RETRY);
+        }
+        int settledCount = 0;
+        try {
+            if (Arrays.stream(outcomes).allMatch(outcome -> outcome == Outcome.ACK)) {
+                getChannel().basicAck(batch.get(batch.size() - 1).getEnvelope().getDeliveryTag(), true);
+                return;
+            }
+            Action[] actions = new Action[batch.size()];
+            boolean published = false;
+            for (int i = 0; i < batch.size(); i++) {
+                actions[i] = resolveAction(batch.get(i), outcomes[i]);
+                if (actions[i] == Action.RETRY || actions[i] == Action.DEAD_LETTER) {
+                    publish(batch.get(i), actions[i], outcomes[i]);
+                    published = true;
+                }
+            }
+            if (published) {
+                getChannel().waitForConfirmsOrDie(CONFIRM_TIMEOUT);
+            }
+            for (int i = 0; i < batch.size(); i++, settledCount++) {
+                long deliveryTag = batch.get(i).getEnvelope().getDeliveryTag();
+                switch (actions[i]) {
+                    case REQUEUE: {
+                        getChannel().basicNack(deliveryTag, false, true);
+                        if (retryPolicy != null) {
+                            retryPolicy.recordRequeue();
+                        }
+                        break;
+                    }
+                    case DISCARD: {
+                        getChannel().basicReject(deliveryTag, false);
+                        break;
+                    }
+                    case RETRY: {
+                        getChannel().basicAck(deliveryTag, false);
+                        retryPolicy.recordRetry();
+                        break;
+                    }
+                    case DEAD_LETTER: {
+                        getChannel().basicAck(deliveryTag, false);
+                        retryPolicy.recordDeadLetter();
+                        break;
+                    }
+                    default: {
+                        getChannel().basicAck(deliveryTag, false);
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            System.out.println("Failed to settle AMQP delivery batch:\n" + e);
+            for (int i = settledCount; i < batch.size(); i++) {
+                try {
+                    getChannel().basicNack(batch.get(i).getEnvelope().getDeliveryTag(), false, true);
+                }
+                catch (Exception ignored) { }
+            }
+        }
+    }
+
+    private Action resolveAction(Delivery delivery, Outcome outcome) {
+        if (outcome == Outcome.ACK) {
+            return Action.ACK;
+        }
+        if (outcome == Outcome.REJECT) {
+            return retryPolicy == null ? Action.DISCARD : Action.DEAD_LETTER;
+        }
+        if (retryPolicy == null) {
+            return Action.REQUEUE;
+        }
+        int retryCount = getRetryCount(delivery);
+        if (retryCount == 0 && !delivery.getEnvelope().isRedeliver()) {
+            return Action.REQUEUE;
+        }
+        return retryCount < retryPolicy.getMaxRetryCount() ? Action.RETRY : Action.DEAD_LETTER;
+    }
+
+    private void publish(Delivery delivery, Action action, Outcome outcome) throws Exception {
+        if (!confirmsEnabled) {
+            getChannel().confirmSelect();
+            confirmsEnabled = true;
+        }
+        int retryCount = getRetryCount(delivery);
+        AMQP.BasicProperties properties = delivery.getProperties() == null ? new AMQP.BasicProperties() : delivery.getProperties();
+        Map<String, Object> headers = properties.getHeaders() == null ? new HashMap<>() : new HashMap<>(properties.getHeaders());
+        String routingKey;
+        if (action == Action.RETRY) {
+            headers.put(AmqpRetryPolicy.RETRY_COUNT_HEADER, retryCount + 1);
+            routingKey = retryPolicy.getRetryQueueName(retryCount);
+        }
+        else {
+            headers.put(AmqpRetryPolicy.DEAD_LETTER_REASON_HEADER, outcome == Outcome.REJECT ? "rejected" : "retries-exhausted");
+            routingKey = retryPolicy.getDeadLetterQueueName();
+        }
+        getChannel().basicPublish("", routingKey, properties.builder().headers(headers).deliveryMode(2).build(), delivery.getBody());
+    }
+
+    private static int getRetryCount(Delivery delivery) {
+        if (delivery.getProperties() == null || delivery.getProperties().getHeaders() == null) {
+            return 0;
+        }
+        Object retryCount = delivery.getProperties().getHeaders().get(AmqpRetryPolicy.RETRY_COUNT_HEADER);
+        return retryCount instanceof Number ? ((Number) retryCount).intValue() : 0;
+    }
+
+    public enum Outcome {
+        ACK,
+        RETRY,
+        REJECT
+    }
+
+    private enum Action {
+        ACK,
+        REQUEUE,
+        DISCARD,
+        RETRY,
+        DEAD_LETTER
+    }
+
+    public static class Delivery {
+        private final Envelope envelope;
+        private final AMQP.BasicProperties properties;
+        private final byte[] body;
+
+        public Delivery(Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+            this.envelope = envelope;
+            this.properties = properties;
+            this.body = body;
+        }
+
+        public Envelope getEnvelope() {
+            return envelope;
+        }
+
+        public AMQP.BasicProperties getProperties() {
+            return properties;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
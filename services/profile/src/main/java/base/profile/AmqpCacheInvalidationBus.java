@@ -0,0 +1,232 @@
+package base.profile;
+
+import base.profile.service.ProfileCache;
+import com.google.gson.Gson;
+import com.rabbitmq.client.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class AmqpCacheInvalidationBus implements ProfileCache.InvalidationListener, AutoCloseable {
+    private static final int DEFAULT_PORT = 5672;
+    private static final String DEFAULT_EXCHANGE_NAME = "profile.invalidation";
+    private static final long DEFAULT_COALESCE_INTERVAL = 50;
+    private static final long DEFAULT_STALENESS_BOUND = 5000;
+    private static final long DEFAULT_RECOVERY_INITIAL_DELAY = 1000;
+    private static final long DEFAULT_RECOVERY_MAX_DELAY = 30000;
+    private final ConnectionFactory connectionFactory = new ConnectionFactory();
+    private final ProfileCache profileCache;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService executor;
+    private final Set<String> pendingAccountIds = new HashSet<>();
+    private final Set<String> pendingNames = new HashSet<>();
+    private boolean pendingAllNames;
+    private String exchangeName;
+    private long coalesceInterval;
+    private long stalenessBound;
+    private long recoveryInitialDelay;
+    private long recoveryMaxDelay;
+    private int recoveryAttempt;
+    private long nextConnectTime;
+    private Connection connection;
+    private Channel publishChannel;
+    private long lastPublishTime;
+    private volatile long lastReceiveTime;
+
+    public AmqpCacheInvalidationBus(ProfileCache profileCache, Map<String, String> config) {
+        configure(config);
+        if (profileCache == null) {
+            throw new RuntimeException("Invalid profileCache provided to AmqpCacheInvalidationBus constructor");
+        }
+        this.profileCache = profileCache;
+        connectionFactory.setAutomaticRecoveryEnabled(false);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amqp-cache-invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        profileCache.suspend();
+        profileCache.setInvalidationListener(this);
+        executor.scheduleWithFixedDelay(this::tick, 0, coalesceInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onInvalidation(Collection<String> accountIds, Collection<String> names, boolean allNames) {
+        synchronized (pendingAccountIds) {
+            pendingAccountIds.addAll(accountIds);
+            pendingNames.addAll(names);
+            pendingAllNames |= allNames;
+        }
+    }
+
+    @Override
+    public void close() {
+        profileCache.setInvalidationListener(null);
+        executor.shutdownNow();
+        closeConnection();
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        if (now - lastReceiveTime > stalenessBound) {
+            profileCache.suspend();
+        }
+        if ((connection == null || !connection.isOpen()) && now < nextConnectTime) {
+            return;
+        }
+        try {
+            if (connection == null || !connection.isOpen()) {
+                connect();
+                recoveryAttempt = 0;
+            }
+            publishPendingInvalidations();
+        }
+        catch (Exception e) {
+            System.out.println("Failed to exchange cache invalidations:\n" + e);
+            closeConnection();
+            scheduleReconnect(now);
+        }
+    }
+
+    private void scheduleReconnect(long now) {
+        long delay = recoveryInitialDelay << Math.min(recoveryAttempt, 30);
+        if (delay <= 0 || delay > recoveryMaxDelay) {
+            delay = recoveryMaxDelay;
+        }
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        recoveryAttempt++;
+        nextConnectTime = now + delay;
+    }
+
+    private void connect() throws Exception {
+        closeConnection();
+        connection = connectionFactory.newConnection();
+        publishChannel = connection.createChannel();
+        publishChannel.exchangeDeclare(exchangeName, BuiltinExchangeType.FANOUT, false);
+        Channel consumeChannel = connection.createChannel();
+        String queueName = consumeChannel.queueDeclare("", false, true, true, null).getQueue();
+        consumeChannel.queueBind(queueName, exchangeName, "");
+        consumeChannel.basicConsume(queueName, true, new DefaultConsumer(consumeChannel) {
+            @Override
+            public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+                handleMessage(body);
+            }
+        });
+        profileCache.invalidateAll();
+    }
+
+    private void publishPendingInvalidations() throws Exception {
+        Message message = new Message();
+        synchronized (pendingAccountIds) {
+            boolean idle = pendingAccountIds.isEmpty() && pendingNames.isEmpty() && !pendingAllNames;
+            if (idle && System.currentTimeMillis() - lastPublishTime < stalenessBound / 3) {
+                return;
+            }
+            message.accountIds = pendingAccountIds.toArray(new String[0]);
+            message.names = pendingNames.toArray(new String[0]);
+            message.allNames = pendingAllNames;
+            pendingAccountIds.clear();
+            pendingNames.clear();
+            pendingAllNames = false;
+        }
+        message.origin = instanceId;
+        message.time = System.currentTimeMillis();
+        try {
+            publishChannel.basicPublish(exchangeName, "", null, gson.toJson(message).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (Exception e) {
+            onInvalidation(Arrays.asList(message.accountIds), Arrays.asList(message.names), message.allNames);
+            throw e;
+        }
+        lastPublishTime = message.time;
+    }
+
+    private void handleMessage(byte[] body) {
+        Message message;
+        try {
+            message = gson.fromJson(new String(body, StandardCharsets.UTF_8), Message.class);
+        }
+        catch (Exception e) {
+            return;
+        }
+        if (message == null || message.origin == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!instanceId.equals(message.origin)) {
+            if (now - message.time > stalenessBound) {
+                profileCache.invalidateAll();
+            }
+            else {
+                profileCache.applyInvalidation(message.accountIds == null ? List.of() : Arrays.asList(message.accountIds), message.names == null ? List.of() : Arrays.asList(message.names), message.allNames);
+            }
+        }
+        lastReceiveTime = now;
+        profileCache.resume();
+    }
+
+    private void closeConnection() {
+        Connection currentConnection = connection;
+        connection = null;
+        publishChannel = null;
+        if (currentConnection != null) {
+            try {
+                currentConnection.close();
+            }
+            catch (Exception ignored) { }
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to AmqpCacheInvalidationBus constructor");
+        }
+        String host = config.get("host");
+        connectionFactory.setHost(host == null || host.length() == 0 ? "localhost" : host);
+        connectionFactory.setPort((int) parseNonNegativeLong(config.get("port"), DEFAULT_PORT));
+        exchangeName = config.get("exchangeName");
+        if (exchangeName == null || exchangeName.length() == 0) {
+            exchangeName = DEFAULT_EXCHANGE_NAME;
+        }
+        coalesceInterval = parseNonNegativeLong(config.get("coalesceInterval"), DEFAULT_COALESCE_INTERVAL);
+        stalenessBound = parseNonNegativeLong(config.get("stalenessBound"), DEFAULT_STALENESS_BOUND);
+        recoveryInitialDelay = Math.max(1, parseNonNegativeLong(config.get("recoveryInitialDelay"), DEFAULT_RECOVERY_INITIAL_DELAY));
+        recoveryMaxDelay = Math.max(recoveryInitialDelay, parseNonNegativeLong(config.get("recoveryMaxDelay"), DEFAULT_RECOVERY_MAX_DELAY));
+        if (coalesceInterval == 0 || stalenessBound < coalesceInterval * 3) {
+            throw new RuntimeException("Invalid config provided to AmqpCacheInvalidationBus constructor");
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to AmqpCacheInvalidationBus constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to AmqpCacheInvalidationBus constructor");
+        }
+        return parsedValue;
+    }
+
+    private static class Message {
+        private String origin;
+        private long time;
+        private String[] accountIds;
+        private String[] names;
+        private boolean allNames;
+    }
+}
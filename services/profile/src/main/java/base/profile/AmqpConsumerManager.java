@@ -0,0 +1,355 @@
+package base.profile;
+
+import com.rabbitmq.client.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class AmqpConsumerManager implements AutoCloseable {
+    private static final int DEFAULT_PORT = 5672;
+    private static final int DEFAULT_HEARTBEAT = 30;
+    private static final long DEFAULT_RECOVERY_INITIAL_DELAY = 1000;
+    private static final long DEFAULT_RECOVERY_MAX_DELAY = 30000;
+    private static final long DEFAULT_STATUS_REPORT_INTERVAL = 60000;
+    private final ConnectionFactory connectionFactory = new ConnectionFactory();
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final Map<Channel, Registration> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService recoveryExecutor;
+    private final AtomicLong recoveryCount = new AtomicLong();
+    private long recoveryInitialDelay;
+    private long recoveryMaxDelay;
+    private long statusReportInterval;
+    private int recoveryAttempt;
+    private volatile Connection connection;
+    private volatile State state = State.DISCONNECTED;
+    private volatile long lastConnectTime;
+    private volatile boolean closed;
+
+    public AmqpConsumerManager(Map<String, String> config) {
+        configure(config);
+        connectionFactory.setAutomaticRecoveryEnabled(false);
+        connectionFactory.setTopologyRecoveryEnabled(false);
+        recoveryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amqp-consumer-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void register(Registration registration) {
+        if (registration == null) {
+            throw new RuntimeException("Invalid registration provided to AmqpConsumerManager.register()");
+        }
+        registrations.add(registration);
+        recoveryExecutor.execute(() -> {
+            Connection currentConnection = connection;
+            if (state == State.CONNECTED && currentConnection != null && !channels.containsValue(registration)) {
+                try {
+                    openChannels(currentConnection, registration);
+                }
+                catch (Exception e) {
+                    System.out.println("Failed to register AMQP consumer for queue " + registration.getQueueName() + ":\n" + e);
+                    resetConnection(currentConnection);
+                }
+            }
+        });
+    }
+
+    public void start() {
+        recoveryExecutor.execute(this::connect);
+        if (statusReportInterval > 0) {
+            recoveryExecutor.scheduleWithFixedDelay(this::reportStatus, statusReportInterval, statusReportInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRecoveryCount() {
+        return recoveryCount.get();
+    }
+
+    public long getLastConnectTime() {
+        return lastConnectTime;
+    }
+
+    public long getBacklog(String queueName) {
+        Connection currentConnection = connection;
+        if (currentConnection == null || !currentConnection.isOpen()) {
+            return -1;
+        }
+        try (Channel channel = currentConnection.createChannel()) {
+            return channel.queueDeclarePassive(queueName).getMessageCount();
+        }
+        catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        state = State.CLOSED;
+        recoveryExecutor.shutdownNow();
+        Connection currentConnection = connection;
+        connection = null;
+        channels.clear();
+        if (currentConnection != null) {
+            closeQuietly(currentConnection);
+        }
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        state = State.CONNECTING;
+        Connection newConnection = null;
+        try {
+            newConnection = connectionFactory.newConnection();
+            Connection listenedConnection = newConnection;
+            newConnection.addShutdownListener(cause -> handleConnectionShutdown(listenedConnection, cause));
+            connection = newConnection;
+            channels.clear();
+            for (Registration registration : registrations) {
+                openChannels(newConnection, registration);
+            }
+        }
+        catch (Exception e) {
+            System.out.println("Failed to establish AMQP connection:\n" + e);
+            if (newConnection != null) {
+                connection = null;
+                closeQuietly(newConnection);
+            }
+            state = State.DISCONNECTED;
+            scheduleReconnect();
+            return;
+        }
+        if (recoveryAttempt > 0) {
+            recoveryCount.incrementAndGet();
+        }
+        recoveryAttempt = 0;
+        lastConnectTime = System.currentTimeMillis();
+        state = State.CONNECTED;
+        System.out.println("AMQP connection established");
+    }
+
+    private void openChannels(Connection owner, Registration registration) throws Exception {
+        for (int i = 0; i < registration.getConsumerCount(); i++) {
+            openChannel(owner, registration);
+        }
+    }
+
+    private void openChannel(Connection owner, Registration registration) throws Exception {
+        Channel channel = owner.createChannel();
+        try {
+            if (registration.getPrefetchCount() > 0) {
+                channel.basicQos(registration.getPrefetchCount());
+            }
+            registration.declareTopology(channel);
+            channel.basicConsume(registration.getQueueName(), false, registration.getConsumerFactory().apply(channel));
+        }
+        catch (Exception e) {
+            closeQuietly(channel);
+            throw e;
+        }
+        channel.addShutdownListener(cause -> handleChannelShutdown(owner, registration, channel, cause));
+        channels.put(channel, registration);
+    }
+
+    private void handleConnectionShutdown(Connection owner, ShutdownSignalException cause) {
+        if (closed || owner != connection || cause.isInitiatedByApplication()) {
+            return;
+        }
+        System.out.println("AMQP connection lost:\n" + cause);
+        state = State.DISCONNECTED;
+        try {
+            recoveryExecutor.execute(() -> {
+                if (owner == connection) {
+                    connection = null;
+                    scheduleReconnect();
+                }
+            });
+        }
+        catch (RejectedExecutionException ignored) { }
+    }
+
+    private void handleChannelShutdown(Connection owner, Registration registration, Channel channel, ShutdownSignalException cause) {
+        if (closed || owner != connection || cause.isHardError() || cause.isInitiatedByApplication() || !channels.remove(channel, registration)) {
+            return;
+        }
+        System.out.println("AMQP channel for queue " + registration.getQueueName() + " lost:\n" + cause);
+        try {
+            recoveryExecutor.execute(() -> {
+                if (closed || owner != connection || !owner.isOpen()) {
+                    return;
+                }
+                try {
+                    openChannel(owner, registration);
+                }
+                catch (Exception e) {
+                    System.out.println("Failed to reopen AMQP channel for queue " + registration.getQueueName() + ":\n" + e);
+                    resetConnection(owner);
+                }
+            });
+        }
+        catch (RejectedExecutionException ignored) { }
+    }
+
+    private void resetConnection(Connection owner) {
+        closeQuietly(owner);
+        if (owner == connection) {
+            connection = null;
+            state = State.DISCONNECTED;
+            scheduleReconnect();
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (closed) {
+            return;
+        }
+        long delay = recoveryInitialDelay << Math.min(recoveryAttempt, 30);
+        if (delay <= 0 || delay > recoveryMaxDelay) {
+            delay = recoveryMaxDelay;
+        }
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        recoveryAttempt++;
+        try {
+            recoveryExecutor.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ignored) { }
+    }
+
+    private void reportStatus() {
+        StringBuilder status = new StringBuilder("AMQP status: ").append(state);
+        for (Registration registration : registrations) {
+            status.append(", ").append(registration.getQueueName()).append(" backlog: ").append(getBacklog(registration.getQueueName()));
+            if (registration.getRetryPolicy() != null) {
+                AmqpRetryPolicy retryPolicy = registration.getRetryPolicy();
+                status.append(" (requeued: ").append(retryPolicy.getRequeueCount()).append(", retried: ").append(retryPolicy.getRetryCount()).append(", dead-lettered: ").append(retryPolicy.getDeadLetterCount()).append(")");
+            }
+        }
+        System.out.println(status);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        }
+        catch (Exception ignored) { }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        }
+        catch (Exception ignored) { }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to AmqpConsumerManager constructor");
+        }
+        String host = config.get("host");
+        connectionFactory.setHost(host == null || host.length() == 0 ? "localhost" : host);
+        connectionFactory.setPort((int) parseNonNegativeLong(config.get("port"), DEFAULT_PORT));
+        connectionFactory.setRequestedHeartbeat((int) parseNonNegativeLong(config.get("heartbeat"), DEFAULT_HEARTBEAT));
+        recoveryInitialDelay = Math.max(1, parseNonNegativeLong(config.get("recoveryInitialDelay"), DEFAULT_RECOVERY_INITIAL_DELAY));
+        recoveryMaxDelay = Math.max(recoveryInitialDelay, parseNonNegativeLong(config.get("recoveryMaxDelay"), DEFAULT_RECOVERY_MAX_DELAY));
+        statusReportInterval = parseNonNegativeLong(config.get("statusReportInterval"), DEFAULT_STATUS_REPORT_INTERVAL);
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to AmqpConsumerManager constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to AmqpConsumerManager constructor");
+        }
+        return parsedValue;
+    }
+
+    public enum State {
+        DISCONNECTED,
+        CONNECTING,
+        CONNECTED,
+        CLOSED
+    }
+
+    public static class Registration {
+        private final String queueName;
+        private final String exchangeName;
+        private final String routingKey;
+        private final Function<Channel, Consumer> consumerFactory;
+        private final int prefetchCount;
+        private final int consumerCount;
+        private final AmqpRetryPolicy retryPolicy;
+
+        public Registration(String queueName, String exchangeName, String routingKey, Function<Channel, Consumer> consumerFactory) {
+            this(queueName, exchangeName, routingKey, consumerFactory, 0, 1, null);
+        }
+
+        public Registration(String queueName, String exchangeName, String routingKey, Function<Channel, Consumer> consumerFactory, int prefetchCount, int consumerCount, AmqpRetryPolicy retryPolicy) {
+            if (queueName == null || queueName.length() == 0 || consumerFactory == null || prefetchCount < 0 || consumerCount <= 0) {
+                throw new RuntimeException("Invalid arguments provided to AmqpConsumerManager.Registration constructor");
+            }
+            this.queueName = queueName;
+            this.exchangeName = exchangeName;
+            this.routingKey = routingKey;
+            this.consumerFactory = consumerFactory;
+            this.prefetchCount = prefetchCount;
+            this.consumerCount = consumerCount;
+            this.retryPolicy = retryPolicy;
+        }
+
+        public String getQueueName() {
+            return queueName;
+        }
+
+        public String getExchangeName() {
+            return exchangeName;
+        }
+
+        public String getRoutingKey() {
+            return routingKey;
+        }
+
+        public Function<Channel, Consumer> getConsumerFactory() {
+            return consumerFactory;
+        }
+
+        public int getPrefetchCount() {
+            return prefetchCount;
+        }
+
+        public int getConsumerCount() {
+            return consumerCount;
+        }
+
+        public AmqpRetryPolicy getRetryPolicy() {
+            return retryPolicy;
+        }
+
+        private void declareTopology(Channel channel) throws Exception {
+            channel.queueDeclare(queueName, true, false, false, null);
+            if (exchangeName != null) {
+                channel.queueBind(queueName, exchangeName, routingKey == null ? "" : routingKey);
+            }
+            if (retryPolicy != null) {
+                retryPolicy.declareTopology(channel);
+            }
+        }
+    }
+}
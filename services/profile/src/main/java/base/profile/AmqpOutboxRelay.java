@@ -0,0 +1,190 @@
+package base.profile;
+
+import base.profile.repository.ProfileEventRepository;
+import base.profile.repository.model.ProfileEvent;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AmqpOutboxRelay implements AutoCloseable {
+    private static final int DEFAULT_PORT = 5672;
+    private static final String DEFAULT_EXCHANGE_NAME = "profile";
+    private static final String DEFAULT_EXCHANGE_TYPE = "direct";
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_POLL_INTERVAL = 1000;
+    private static final long DEFAULT_CONFIRM_TIMEOUT = 2000;
+    private static final long CONFIRM_TIMEOUT_MAX_VALUE = 10000;
+    private static final long DEFAULT_RECOVERY_INITIAL_DELAY = 1000;
+    private static final long DEFAULT_RECOVERY_MAX_DELAY = 30000;
+    private final ConnectionFactory connectionFactory = new ConnectionFactory();
+    private final ProfileEventRepository profileEventRepository;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong publishedCount = new AtomicLong();
+    private String exchangeName;
+    private String exchangeType;
+    private int batchSize;
+    private long pollInterval;
+    private long confirmTimeout;
+    private long recoveryInitialDelay;
+    private long recoveryMaxDelay;
+    private int recoveryAttempt;
+    private long nextAttemptTime;
+    private Connection connection;
+    private Channel channel;
+    private volatile boolean closed;
+
+    public AmqpOutboxRelay(ProfileEventRepository profileEventRepository, Map<String, String> config) {
+        configure(config);
+        if (profileEventRepository == null) {
+            throw new RuntimeException("Invalid profileEventRepository provided to AmqpOutboxRelay constructor");
+        }
+        this.profileEventRepository = profileEventRepository;
+        connectionFactory.setAutomaticRecoveryEnabled(false);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amqp-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::relay, 0, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(confirmTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        closeConnection();
+    }
+
+    private void relay() {
+        long now = System.currentTimeMillis();
+        if (now < nextAttemptTime) {
+            return;
+        }
+        try {
+            Channel currentChannel = openChannel();
+            while (!closed && relayBatch(currentChannel) == batchSize) { }
+            recoveryAttempt = 0;
+        }
+        catch (Exception e) {
+            System.out.println("Failed to relay profile events:\n" + e);
+            closeConnection();
+            scheduleRetry(now);
+        }
+    }
+
+    private void scheduleRetry(long now) {
+        long delay = recoveryInitialDelay << Math.min(recoveryAttempt, 30);
+        if (delay <= 0 || delay > recoveryMaxDelay) {
+            delay = recoveryMaxDelay;
+        }
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        recoveryAttempt++;
+        nextAttemptTime = now + delay;
+    }
+
+    private int relayBatch(Channel currentChannel) throws Exception {
+        return profileEventRepository.relayEvents(batchSize, events -> {
+            for (ProfileEvent event : events) {
+                AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                        .messageId(String.valueOf(event.getId()))
+                        .timestamp(new Date(event.getCreationTime() * 1000))
+                        .contentType("application/json")
+                        .deliveryMode(2)
+                        .build();
+                currentChannel.basicPublish(exchangeName, event.getType(), properties, event.getPayload().getBytes(StandardCharsets.UTF_8));
+            }
+            currentChannel.waitForConfirmsOrDie(confirmTimeout);
+            publishedCount.addAndGet(events.length);
+        });
+    }
+
+    private Channel openChannel() throws Exception {
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+        closeConnection();
+        connection = connectionFactory.newConnection();
+        channel = connection.createChannel();
+        channel.exchangeDeclare(exchangeName, exchangeType, true);
+        channel.confirmSelect();
+        return channel;
+    }
+
+    private void closeConnection() {
+        Connection currentConnection = connection;
+        connection = null;
+        channel = null;
+        if (currentConnection != null) {
+            try {
+                currentConnection.close();
+            }
+            catch (Exception ignored) { }
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to AmqpOutboxRelay constructor");
+        }
+        String host = config.get("host");
+        connectionFactory.setHost(host == null || host.length() == 0 ? "localhost" : host);
+        connectionFactory.setPort((int) parseNonNegativeLong(config.get("port"), DEFAULT_PORT));
+        exchangeName = config.get("exchangeName");
+        if (exchangeName == null || exchangeName.length() == 0) {
+            exchangeName = DEFAULT_EXCHANGE_NAME;
+        }
+        exchangeType = config.get("exchangeType");
+        if (exchangeType == null || exchangeType.length() == 0) {
+            exchangeType = DEFAULT_EXCHANGE_TYPE;
+        }
+        batchSize = (int) parseNonNegativeLong(config.get("batchSize"), DEFAULT_BATCH_SIZE);
+        pollInterval = parseNonNegativeLong(config.get("pollInterval"), DEFAULT_POLL_INTERVAL);
+        confirmTimeout = parseNonNegativeLong(config.get("confirmTimeout"), DEFAULT_CONFIRM_TIMEOUT);
+        recoveryInitialDelay = Math.max(1, parseNonNegativeLong(config.get("recoveryInitialDelay"), DEFAULT_RECOVERY_INITIAL_DELAY));
+        recoveryMaxDelay = Math.max(recoveryInitialDelay, parseNonNegativeLong(config.get("recoveryMaxDelay"), DEFAULT_RECOVERY_MAX_DELAY));
+        if (batchSize == 0 || pollInterval == 0 || confirmTimeout == 0 || confirmTimeout > CONFIRM_TIMEOUT_MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to AmqpOutboxRelay constructor");
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to AmqpOutboxRelay constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to AmqpOutboxRelay constructor");
+        }
+        return parsedValue;
+    }
+}
@@ -0,0 +1,73 @@
+package base.profile;
+
+import com.rabbitmq.client.Channel;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AmqpRetryPolicy {
+    public static final String RETRY_COUNT_HEADER = "retry-count";
+    public static final String DEAD_LETTER_REASON_HEADER = "dead-letter-reason";
+    private final String queueName;
+    private final long[] retryDelays;
+    private final AtomicLong requeueCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+
+    public AmqpRetryPolicy(String queueName, long initialRetryDelay, int retryDelayMultiplier, int maxRetryCount) {
+        if (queueName == null || queueName.length() == 0 || initialRetryDelay <= 0 || retryDelayMultiplier <= 0 || maxRetryCount < 0) {
+            throw new RuntimeException("Invalid arguments provided to AmqpRetryPolicy constructor");
+        }
+        this.queueName = queueName;
+        retryDelays = new long[maxRetryCount];
+        long retryDelay = initialRetryDelay;
+        for (int i = 0; i < maxRetryCount; i++) {
+            retryDelays[i] = retryDelay;
+            retryDelay *= retryDelayMultiplier;
+        }
+    }
+
+    public int getMaxRetryCount() {
+        return retryDelays.length;
+    }
+
+    public String getRetryQueueName(int retryCount) {
+        return queueName + ".retry." + retryDelays[retryCount];
+    }
+
+    public String getDeadLetterQueueName() {
+        return queueName + ".dead";
+    }
+
+    public long getRequeueCount() {
+        return requeueCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+
+    void declareTopology(Channel channel) throws Exception {
+        for (int i = 0; i < retryDelays.length; i++) {
+            Map<String, Object> arguments = Map.of("x-message-ttl", retryDelays[i], "x-dead-letter-exchange", "", "x-dead-letter-routing-key", queueName);
+            channel.queueDeclare(getRetryQueueName(i), true, false, false, arguments);
+        }
+        channel.queueDeclare(getDeadLetterQueueName(), true, false, false, null);
+    }
+
+    void recordRequeue() {
+        requeueCount.incrementAndGet();
+    }
+
+    void recordRetry() {
+        retryCount.incrementAndGet();
+    }
+
+    void recordDeadLetter() {
+        deadLetterCount.incrementAndGet();
+    }
+}
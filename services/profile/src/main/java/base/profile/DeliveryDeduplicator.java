@@ -0,0 +1,72 @@
+package base.profile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DeliveryDeduplicator {
+    private final long window;
+    private final int capacity;
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private Set<Long> currentGeneration = new HashSet<>();
+    private Set<Long> previousGeneration = new HashSet<>();
+    private long currentGenerationStartTime = System.currentTimeMillis();
+
+    public DeliveryDeduplicator(long window, int capacity) {
+        if (window <= 0 || capacity <= 0) {
+            throw new RuntimeException("Invalid arguments provided to DeliveryDeduplicator constructor");
+        }
+        this.window = window;
+        this.capacity = capacity;
+    }
+
+    public synchronized boolean isDuplicate(long key) {
+        rotate();
+        if (currentGeneration.contains(key) || previousGeneration.contains(key)) {
+            duplicateCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void record(long key) {
+        rotate();
+        currentGeneration.add(key);
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    public static long computeKey(String messageId, byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Failed to compute delivery key");
+        }
+        if (messageId != null) {
+            digest.update((byte) 1);
+            digest.update(messageId.getBytes(StandardCharsets.UTF_8));
+        }
+        else {
+            digest.update((byte) 0);
+            digest.update(body == null ? new byte[0] : body);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private void rotate() {
+        long now = System.currentTimeMillis();
+        if (now - currentGenerationStartTime < window && currentGeneration.size() < capacity) {
+            return;
+        }
+        previousGeneration = now - currentGenerationStartTime < 2 * window ? currentGeneration : new HashSet<>();
+        currentGeneration = new HashSet<>();
+        currentGenerationStartTime = now;
+    }
+}
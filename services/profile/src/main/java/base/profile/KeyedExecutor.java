@@ -0,0 +1,48 @@
+package base.profile;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class KeyedExecutor implements AutoCloseable {
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    private final ExecutorService[] lanes;
+
+    public KeyedExecutor(int laneCount, String threadName) {
+        if (laneCount <= 0) {
+            throw new RuntimeException("Invalid laneCount provided to KeyedExecutor constructor");
+        }
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String laneThreadName = threadName + "-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, laneThreadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void execute(Object key, Runnable task) {
+        int laneIndex = key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+        lanes[laneIndex].execute(task);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+}
@@ -2,10 +2,23 @@ package base.profile;
 
 import base.profile.controller.ProfileAmqpController;
 import base.profile.controller.ProfileHttpController;
+import base.profile.repository.BatchingProfileRepository;
+import base.profile.repository.BlobRepository;
+import base.profile.repository.FileBlobRepository;
 import base.profile.repository.ProfileJpaRepository;
+import base.profile.repository.model.Blob;
 import base.profile.service.AccountServiceBridge;
+import base.profile.service.BackgroundThrottle;
+import base.profile.service.BlobCollector;
+import base.profile.service.ConcurrencyLimiter;
+import base.profile.service.NameFilter;
+import base.profile.service.ProfileCache;
 import base.profile.service.HttpBridge;
 import base.profile.service.ProfileManager;
+import base.profile.service.ProfileReconciler;
+import base.profile.service.RateLimiter;
+import base.profile.service.TimeManager;
+import base.profile.service.model.Role;
 import com.rabbitmq.client.*;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -16,8 +29,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class ProfileServlet extends HttpServlet {
     // Use environment variables for production; hard-coded for testing only
@@ -28,20 +46,72 @@ public class ProfileServlet extends HttpServlet {
     private static final String PROFILE_DB_PASSWORD = "";
     private static final String PROFILE_DB_CONNECTION_URL_FORMAT = "jdbc:mysql://%s:%s/%s";
     private static final String AMQP_HOST = "localhost";
-    private static final int AMQP_PORT = 5672;
+    private static final String AMQP_PORT = "5672";
     private static final String AMQP_PROFILE_DELETE_QUEUE_NAME = "profile.delete";
     private static final String AMQP_ACCOUNT_EXCHANGE_NAME = "account";
     private static final String AMQP_ACCOUNT_DELETE_ROUTING_KEY = "account.delete";
-    private static final Map<String, String> PROFILE_JPA_REPOSITORY_CONFIG = Map.of("hibernate.connection.url", String.format(PROFILE_DB_CONNECTION_URL_FORMAT, PROFILE_DB_HOST, PROFILE_DB_PORT, PROFILE_DB_DATABASE), "hibernate.connection.username", PROFILE_DB_USERNAME, "hibernate.connection.password", PROFILE_DB_PASSWORD);
+    private static final String AMQP_PROFILE_EXCHANGE_NAME = "profile";
+    private static final int AMQP_PROFILE_DELETE_PREFETCH_COUNT = 200;
+    private static final int AMQP_PROFILE_DELETE_CONSUMER_COUNT = 4;
+    private static final int AMQP_PROFILE_DELETE_BATCH_SIZE = 100;
+    private static final long AMQP_PROFILE_DELETE_BATCH_TIMEOUT = 50;
+    private static final long AMQP_PROFILE_DELETE_INITIAL_RETRY_DELAY = 1000;
+    private static final int AMQP_PROFILE_DELETE_RETRY_DELAY_MULTIPLIER = 4;
+    private static final int AMQP_PROFILE_DELETE_MAX_RETRY_COUNT = 5;
+    private static final long AMQP_PROFILE_DELETE_DEDUPLICATION_WINDOW = 600000;
+    private static final int AMQP_PROFILE_DELETE_DEDUPLICATION_CAPACITY = 100000;
+    private static final String TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String TOMCAT_SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String TOMCAT_SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String TOMCAT_SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    private static final String PROFILE_DB_POOL_SIZE = "16";
+    private static final String PROFILE_DB_BACKGROUND_POOL_SIZE = "4";
+    private static final Map<String, String> PROFILE_JPA_REPOSITORY_CONFIG = Map.of("hibernate.connection.url", String.format(PROFILE_DB_CONNECTION_URL_FORMAT, PROFILE_DB_HOST, PROFILE_DB_PORT, PROFILE_DB_DATABASE), "hibernate.connection.username", PROFILE_DB_USERNAME, "hibernate.connection.password", PROFILE_DB_PASSWORD, "hibernate.connection.pool_size", PROFILE_DB_POOL_SIZE);
+    private static final Map<String, String> BACKGROUND_PROFILE_JPA_REPOSITORY_CONFIG = Map.of("hibernate.connection.url", String.format(PROFILE_DB_CONNECTION_URL_FORMAT, PROFILE_DB_HOST, PROFILE_DB_PORT, PROFILE_DB_DATABASE), "hibernate.connection.username", PROFILE_DB_USERNAME, "hibernate.connection.password", PROFILE_DB_PASSWORD, "hibernate.connection.pool_size", PROFILE_DB_BACKGROUND_POOL_SIZE);
+    private static final Map<String, String> AMQP_CONSUMER_MANAGER_CONFIG = Map.of("host", AMQP_HOST, "port", AMQP_PORT, "statusReportInterval", "60000");
+    private static final Map<String, String> AMQP_OUTBOX_RELAY_CONFIG = Map.of("host", AMQP_HOST, "port", AMQP_PORT, "exchangeName", AMQP_PROFILE_EXCHANGE_NAME, "exchangeType", "direct", "confirmTimeout", "2000", "recoveryInitialDelay", "1000", "recoveryMaxDelay", "30000");
+    private static final Map<String, String> HTTP_BRIDGE_CONFIG = Map.of("connectTimeout", "1000", "readTimeout", "5000");
     private static final Map<String, String> ACCOUNT_SERVICE_BRIDGE_CONFIG = Map.of("port", "8081");
+    private static final Map<String, String> PROFILE_MANAGER_CONFIG = Map.of("trustedSessionAgeMaxValue", "300", "avatarMaxSize", "5242880", "bioMaxSize", "65536", "createConcurrency", "16");
+    private static final Map<String, String> FILE_BLOB_REPOSITORY_CONFIG = Map.of("path", "/var/lib/profile-service/blobs", "bufferSize", "65536");
+    private static final Map<String, String> BLOB_COLLECTOR_CONFIG = Map.of("pageSize", "500", "gracePeriod", "3600000", "interval", "3600000");
+    private static final Map<String, String> BATCHING_PROFILE_REPOSITORY_CONFIG = Map.of("windowMicros", "500", "maxBatchSize", "100");
+    private static final Map<String, String> PROFILE_CACHE_CONFIG = Map.of("capacity", "10000", "ttl", "300000");
+    private static final Map<String, String> AMQP_CACHE_INVALIDATION_BUS_CONFIG = Map.of("host", AMQP_HOST, "port", AMQP_PORT, "exchangeName", "profile.invalidation", "coalesceInterval", "50", "stalenessBound", "5000", "recoveryInitialDelay", "1000", "recoveryMaxDelay", "30000");
+    private static final Map<String, String> NAME_FILTER_CONFIG = Map.of("expectedInsertions", "1000000", "falsePositiveRate", "0.01", "memoryBudget", "4194304", "rebuildInterval", "3600000");
+    private static final Map<String, String> RATE_LIMITER_CONFIG = Map.of("userRate", "20", "userBurst", "40", "adminRate", "200", "adminBurst", "400", "anonymousRate", "100", "anonymousBurst", "200", "idleTimeout", "60000", "maxPrincipals", "100000");
+    private static final Map<String, String> CONCURRENCY_LIMITER_CONFIG = Map.of("initialLimit", "20", "minLimit", "4", "maxLimit", "200", "systemReserve", "0.1", "minRttWindow", "1000");
+    private static final Map<String, String> BACKGROUND_THROTTLE_CONFIG = Map.of("latencyTarget", "200", "delayStep", "10", "maxDelay", "2000");
+    private static final Map<String, String> PROFILE_RECONCILER_CONFIG = Map.of("pageSize", "500", "rateLimit", "500", "interval", "86400000", "checkpointPath", "/var/lib/profile-service/profile-reconciler.checkpoint");
     private final ProfileJpaRepository profileJpaRepository = new ProfileJpaRepository(PROFILE_JPA_REPOSITORY_CONFIG);
-    private final HttpBridge httpBridge = new HttpBridge();
+    private final ProfileJpaRepository backgroundProfileJpaRepository = new ProfileJpaRepository(BACKGROUND_PROFILE_JPA_REPOSITORY_CONFIG);
+    private final LazyBlobRepository fileBlobRepository = new LazyBlobRepository(FILE_BLOB_REPOSITORY_CONFIG);
+    private final BatchingProfileRepository batchingProfileRepository = new BatchingProfileRepository(profileJpaRepository, BATCHING_PROFILE_REPOSITORY_CONFIG);
+    private final HttpBridge httpBridge = new HttpBridge(HTTP_BRIDGE_CONFIG);
     private final AccountServiceBridge accountServiceBridge = new AccountServiceBridge(httpBridge, ACCOUNT_SERVICE_BRIDGE_CONFIG);
-    private final ProfileManager profileManager = new ProfileManager(profileJpaRepository, accountServiceBridge);
-    private final ProfileHttpController profileHttpController = new ProfileHttpController(profileManager);
-    private final ProfileAmqpController profileAmqpController = new ProfileAmqpController(profileManager);
-    private Connection amqpConnection;
-    private Channel amqpChannel;
+    private final TimeManager timeManager = new TimeManager();
+    private final ProfileCache profileCache = new ProfileCache(PROFILE_CACHE_CONFIG);
+    private final ProfileManager profileManager = new ProfileManager(batchingProfileRepository, accountServiceBridge, timeManager, profileCache, fileBlobRepository, PROFILE_MANAGER_CONFIG);
+    private final ProfileManager backgroundProfileManager = new ProfileManager(backgroundProfileJpaRepository, accountServiceBridge, timeManager, profileCache, PROFILE_MANAGER_CONFIG);
+    private final BackgroundThrottle backgroundThrottle = new BackgroundThrottle(BACKGROUND_THROTTLE_CONFIG);
+    private final NameFilter nameFilter = new NameFilter(backgroundProfileJpaRepository, NAME_FILTER_CONFIG);
+    private final ProfileReconciler profileReconciler = new ProfileReconciler(backgroundProfileJpaRepository, accountServiceBridge, profileCache, backgroundThrottle, backgroundProfileJpaRepository, PROFILE_RECONCILER_CONFIG);
+    private final BlobCollector blobCollector = new BlobCollector(backgroundProfileJpaRepository, fileBlobRepository, backgroundThrottle, BLOB_COLLECTOR_CONFIG);
+    private final RateLimiter rateLimiter = new RateLimiter(RATE_LIMITER_CONFIG);
+    private final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(CONCURRENCY_LIMITER_CONFIG);
+    private final ProfileHttpController profileHttpController = new ProfileHttpController(profileManager, rateLimiter);
+    private final ProfileAmqpController profileAmqpController = new ProfileAmqpController(backgroundProfileManager);
+    private final AmqpOutboxRelay amqpOutboxRelay = new AmqpOutboxRelay(backgroundProfileJpaRepository, AMQP_OUTBOX_RELAY_CONFIG);
+    private final AmqpCacheInvalidationBus amqpCacheInvalidationBus = new AmqpCacheInvalidationBus(profileCache, AMQP_CACHE_INVALIDATION_BUS_CONFIG);
+    private final AmqpConsumerManager amqpConsumerManager = new AmqpConsumerManager(AMQP_CONSUMER_MANAGER_CONFIG);
+    private final KeyedExecutor profileDeleteExecutor = new KeyedExecutor(AMQP_PROFILE_DELETE_CONSUMER_COUNT, "profile-delete");
+    private final ScheduledExecutorService profileDeleteBatchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "profile-delete-batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AmqpRetryPolicy profileDeleteRetryPolicy = new AmqpRetryPolicy(AMQP_PROFILE_DELETE_QUEUE_NAME, AMQP_PROFILE_DELETE_INITIAL_RETRY_DELAY, AMQP_PROFILE_DELETE_RETRY_DELAY_MULTIPLIER, AMQP_PROFILE_DELETE_MAX_RETRY_COUNT);
+    private final DeliveryDeduplicator profileDeleteDeduplicator = new DeliveryDeduplicator(AMQP_PROFILE_DELETE_DEDUPLICATION_WINDOW, AMQP_PROFILE_DELETE_DEDUPLICATION_CAPACITY);
 
     @Override
     public void init() {
@@ -51,6 +121,16 @@ public class ProfileServlet extends HttpServlet {
         catch (Exception e) {
             System.out.println("Unexpected exception while initializing AMQP:\n" + e);
         }
+        try {
+            fileBlobRepository.open();
+        }
+        catch (Exception e) {
+            System.out.println("Unexpected exception while opening blob store:\n" + e);
+        }
+        profileCache.setNameFilter(nameFilter);
+        nameFilter.start();
+        profileReconciler.start();
+        blobCollector.start();
     }
 
     @Override
@@ -61,10 +141,49 @@ public class ProfileServlet extends HttpServlet {
         catch (Exception e) {
             System.out.println("Unexpected exception while deinitializing AMQP:\n" + e);
         }
+        profileDeleteBatchTimer.shutdownNow();
+        profileDeleteExecutor.close();
+        blobCollector.close();
+        profileReconciler.close();
+        nameFilter.close();
+        backgroundThrottle.close();
+        rateLimiter.close();
+        backgroundProfileManager.close();
+        profileManager.close();
+        accountServiceBridge.close();
     }
 
     @Override
     public void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!concurrencyLimiter.tryAcquire(isSystemRequest(request))) {
+            response.setStatus(503);
+            response.setHeader("retry-after", "1");
+            return;
+        }
+        boolean sampled = !isTransferRequest(request);
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            handleRequest(request, response);
+            failed = response.getStatus() >= 500;
+        }
+        finally {
+            long latency = System.nanoTime() - startTime;
+            if (sampled) {
+                concurrencyLimiter.release(latency, failed);
+                backgroundThrottle.recordForegroundLatency(latency);
+            }
+            else {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+
+    private void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (request.getServletPath().equals("/profile/attribute")) {
+            handleAttributeRequest(request, response);
+            return;
+        }
         if (!request.getServletPath().equals("/profile")) {
             response.setStatus(404);
             return;
@@ -72,22 +191,22 @@ public class ProfileServlet extends HttpServlet {
         switch (request.getMethod().toLowerCase()) {
             case "get": {
                 ProfileHttpController.Response res = profileHttpController.readProfile(translateRequest(request));
-                translateResponse(res, response);
+                translateResponse(res, request, response);
                 return;
             }
             case "post": {
                 ProfileHttpController.Response res = profileHttpController.createProfile(translateRequest(request));
-                translateResponse(res, response);
+                translateResponse(res, request, response);
                 return;
             }
             case "put": {
                 ProfileHttpController.Response res = profileHttpController.updateProfile(translateRequest(request));
-                translateResponse(res, response);
+                translateResponse(res, request, response);
                 return;
             }
             case "delete": {
                 ProfileHttpController.Response res = profileHttpController.deleteProfile(translateRequest(request));
-                translateResponse(res, response);
+                translateResponse(res, request, response);
                 return;
             }
             default: {
@@ -96,6 +215,46 @@ public class ProfileServlet extends HttpServlet {
         }
     }
 
+    private void handleAttributeRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        switch (request.getMethod().toLowerCase()) {
+            case "get": {
+                ProfileHttpController.Response res = profileHttpController.readProfileAttribute(translateRequest(request));
+                translateResponse(res, request, response);
+                return;
+            }
+            case "put": {
+                ProfileHttpController.Response res = profileHttpController.updateProfileAttribute(translateStreamingRequest(request));
+                translateResponse(res, request, response);
+                return;
+            }
+            case "delete": {
+                ProfileHttpController.Response res = profileHttpController.deleteProfileAttribute(translateRequest(request));
+                translateResponse(res, request, response);
+                return;
+            }
+            default: {
+                response.setStatus(405);
+            }
+        }
+    }
+
+    private static boolean isTransferRequest(HttpServletRequest request) {
+        return request.getServletPath().equals("/profile/attribute") && !request.getMethod().equalsIgnoreCase("delete");
+    }
+
+    private static boolean isSystemRequest(HttpServletRequest request) {
+        String roles = request.getHeader("authority-roles");
+        if (roles == null || roles.length() == 0) {
+            return false;
+        }
+        try {
+            return (Short.parseShort(roles) & Role.SYSTEM) != 0;
+        }
+        catch (Exception e) {
+            return false;
+        }
+    }
+
     private static ProfileHttpController.Request translateRequest(HttpServletRequest request) throws IOException {
         ByteArrayOutputStream bodyBufferStream = new ByteArrayOutputStream();
         request.getInputStream().transferTo(bodyBufferStream);
@@ -103,7 +262,11 @@ public class ProfileServlet extends HttpServlet {
         return new ProfileHttpController.Request(getHeaders(request), getQueryParameters(request), body);
     }
 
-    private static void translateResponse(ProfileHttpController.Response src, HttpServletResponse dst) throws IOException {
+    private static ProfileHttpController.Request translateStreamingRequest(HttpServletRequest request) throws IOException {
+        return new ProfileHttpController.Request(getHeaders(request), getQueryParameters(request), request.getInputStream());
+    }
+
+    private static void translateResponse(ProfileHttpController.Response src, HttpServletRequest request, HttpServletResponse dst) throws IOException {
         dst.setStatus(src.getStatus());
         if (src.getHeaders() != null) {
             for (Map.Entry<String, List<String>> header : src.getHeaders().entrySet()) {
@@ -115,6 +278,33 @@ public class ProfileServlet extends HttpServlet {
         if (src.getBody() != null) {
             src.getBody().transferTo(dst.getOutputStream());
         }
+        if (src.getFile() != null) {
+            sendFile(src.getFile(), request, dst);
+        }
+    }
+
+    private static void sendFile(ProfileHttpController.FileRegion file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (file.getCount() <= 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(TOMCAT_SENDFILE_FILENAME_ATTRIBUTE, file.getPath().toString());
+            request.setAttribute(TOMCAT_SENDFILE_START_ATTRIBUTE, file.getPosition());
+            request.setAttribute(TOMCAT_SENDFILE_END_ATTRIBUTE, file.getPosition() + file.getCount());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = file.getPosition();
+            long end = file.getPosition() + file.getCount();
+            while (position < end) {
+                long transferCount = channel.transferTo(position, end - position, target);
+                if (transferCount <= 0) {
+                    throw new IOException("Blob ended before the requested range");
+                }
+                position += transferCount;
+            }
+        }
     }
 
     private static Map<String, List<String>> getHeaders(HttpServletRequest request) {
@@ -142,50 +332,115 @@ public class ProfileServlet extends HttpServlet {
         return queryParameters;
     }
 
-    private void initializeAmqp() throws IOException, TimeoutException {
-        if (amqpConnection == null) {
-            ConnectionFactory connectionFactory = new ConnectionFactory();
-            connectionFactory.setHost(AMQP_HOST);
-            connectionFactory.setPort(AMQP_PORT);
-            amqpConnection = connectionFactory.newConnection();
+    private void initializeAmqp() {
+        amqpConsumerManager.register(new AmqpConsumerManager.Registration(AMQP_PROFILE_DELETE_QUEUE_NAME, AMQP_ACCOUNT_EXCHANGE_NAME, AMQP_ACCOUNT_DELETE_ROUTING_KEY, channel -> new ProfileDeleteConsumer(channel, profileAmqpController, profileDeleteDeduplicator, backgroundThrottle, profileDeleteExecutor, profileDeleteBatchTimer, profileDeleteRetryPolicy), AMQP_PROFILE_DELETE_PREFETCH_COUNT, AMQP_PROFILE_DELETE_CONSUMER_COUNT, profileDeleteRetryPolicy));
+        amqpConsumerManager.start();
+        amqpOutboxRelay.start();
+        amqpCacheInvalidationBus.start();
+    }
+
+    private void deinitializeAmqp() {
+        amqpCacheInvalidationBus.close();
+        amqpOutboxRelay.close();
+        amqpConsumerManager.close();
+    }
+
+    private static class LazyBlobRepository implements BlobRepository {
+        private final Map<String, String> config;
+        private volatile FileBlobRepository blobRepository;
+
+        public LazyBlobRepository(Map<String, String> config) {
+            this.config = config;
         }
-        if (amqpChannel == null) {
-            amqpChannel = amqpConnection.createChannel();
+
+        @Override
+        public Blob create(InputStream content, long maxSize) throws base.profile.repository.model.IllegalArgumentException {
+            return open().create(content, maxSize);
         }
-        amqpChannel.queueDeclare(AMQP_PROFILE_DELETE_QUEUE_NAME, true, false, false, null);
-        amqpChannel.queueBind(AMQP_PROFILE_DELETE_QUEUE_NAME, AMQP_ACCOUNT_EXCHANGE_NAME, AMQP_ACCOUNT_DELETE_ROUTING_KEY);
-        ProfileDeleteConsumer profileDeleteConsumer = new ProfileDeleteConsumer(amqpChannel, profileAmqpController);
-        amqpChannel.basicConsume(AMQP_PROFILE_DELETE_QUEUE_NAME, profileDeleteConsumer);
-    }
 
-    private void deinitializeAmqp() throws IOException, TimeoutException {
-        if (amqpChannel != null) {
-            amqpChannel.close();
-            amqpChannel = null;
+        @Override
+        public Blob readById(String id) throws base.profile.repository.model.IllegalArgumentException {
+            return open().readById(id);
+        }
+
+        @Override
+        public Blob[] readAfterId(String id, int maxCount) throws base.profile.repository.model.IllegalArgumentException {
+            return open().readAfterId(id, maxCount);
         }
-        if (amqpConnection != null) {
-            amqpConnection.close();
-            amqpConnection = null;
+
+        @Override
+        public boolean deleteById(String id, long modifiedBefore) throws base.profile.repository.model.IllegalArgumentException {
+            return open().deleteById(id, modifiedBefore);
+        }
+
+        public FileBlobRepository open() {
+            FileBlobRepository currentBlobRepository = blobRepository;
+            if (currentBlobRepository != null) {
+                return currentBlobRepository;
+            }
+            synchronized (this) {
+                if (blobRepository == null) {
+                    blobRepository = new FileBlobRepository(config);
+                }
+                return blobRepository;
+            }
         }
     }
 
-    private static class ProfileDeleteConsumer extends DefaultConsumer {
+    private static class ProfileDeleteConsumer extends AmqpBatchingConsumer {
         private final ProfileAmqpController profileAmqpController;
+        private final DeliveryDeduplicator deduplicator;
+        private final BackgroundThrottle backgroundThrottle;
 
-        public ProfileDeleteConsumer(Channel channel, ProfileAmqpController profileAmqpController) {
-            super(channel);
+        public ProfileDeleteConsumer(Channel channel, ProfileAmqpController profileAmqpController, DeliveryDeduplicator deduplicator, BackgroundThrottle backgroundThrottle, KeyedExecutor executor, ScheduledExecutorService timer, AmqpRetryPolicy retryPolicy) {
+            super(channel, executor, timer, AMQP_PROFILE_DELETE_BATCH_SIZE, AMQP_PROFILE_DELETE_BATCH_TIMEOUT, retryPolicy);
             this.profileAmqpController = profileAmqpController;
+            this.deduplicator = deduplicator;
+            this.backgroundThrottle = backgroundThrottle;
         }
 
         @Override
-        public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
-            ByteArrayInputStream messageBody = new ByteArrayInputStream(body);
-            ProfileAmqpController.Message message = new ProfileAmqpController.Message(messageBody);
-            profileAmqpController.deleteProfile(message);
-            try {
-                getChannel().basicAck(envelope.getDeliveryTag(), false);
-            }
-            catch (Exception ignored) { }
+        protected Outcome[] handleBatch(List<Delivery> deliveries) {
+            Outcome[] outcomes = new Outcome[deliveries.size()];
+            long[] keys = new long[deliveries.size()];
+            List<Integer> pendingIndexes = new ArrayList<>();
+            for (int i = 0; i < deliveries.size(); i++) {
+                Delivery delivery = deliveries.get(i);
+                keys[i] = DeliveryDeduplicator.computeKey(delivery.getProperties() == null ? null : delivery.getProperties().getMessageId(), delivery.getBody());
+                if (deduplicator.isDuplicate(keys[i])) {
+                    outcomes[i] = Outcome.ACK;
+                }
+                else {
+                    pendingIndexes.add(i);
+                }
+            }
+            if (pendingIndexes.isEmpty()) {
+                return outcomes;
+            }
+            backgroundThrottle.acquire();
+            ProfileAmqpController.Message[] messages = new ProfileAmqpController.Message[pendingIndexes.size()];
+            for (int i = 0; i < messages.length; i++) {
+                messages[i] = new ProfileAmqpController.Message(new ByteArrayInputStream(deliveries.get(pendingIndexes.get(i)).getBody()));
+            }
+            ProfileAmqpController.Result[] results = profileAmqpController.deleteProfiles(messages);
+            for (int i = 0; i < results.length; i++) {
+                int index = pendingIndexes.get(i);
+                switch (results[i]) {
+                    case SUCCESS: {
+                        outcomes[index] = Outcome.ACK;
+                        deduplicator.record(keys[index]);
+                        break;
+                    }
+                    case PERMANENT_FAILURE: {
+                        outcomes[index] = Outcome.REJECT;
+                        break;
+                    }
+                    default: {
+                        outcomes[index] = Outcome.RETRY;
+                    }
+                }
+            }
+            return outcomes;
         }
     }
 }
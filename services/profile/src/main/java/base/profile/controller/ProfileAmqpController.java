@@ -1,10 +1,15 @@
 package base.profile.controller;
 
 import base.profile.service.ProfileService;
+import base.profile.service.model.AccessDeniedException;
 import base.profile.service.model.Authority;
+import base.profile.service.model.IllegalArgumentException;
+import base.profile.service.model.NotFoundException;
 import base.profile.service.model.Role;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ProfileAmqpController {
     private final ProfileService profileService;
@@ -16,19 +21,84 @@ public class ProfileAmqpController {
         this.profileService = profileService;
     }
 
-    public void deleteProfile(Message message) {
+    public Result deleteProfile(Message message) {
         Authority authority = new Authority(null, Role.SYSTEM, 0);
         String id;
         try {
             id = new String(message.getContent().readAllBytes());
         }
         catch (Exception e) {
-            return;
+            return Result.PERMANENT_FAILURE;
         }
         try {
             profileService.deleteProfile(authority, id);
         }
-        catch (Exception ignored) { }
+        catch (Exception e) {
+            return mapExceptionToResult(e);
+        }
+        return Result.SUCCESS;
+    }
+
+    public Result[] deleteProfiles(Message[] messages) {
+        Authority authority = new Authority(null, Role.SYSTEM, 0);
+        Result[] results = new Result[messages.length];
+        String[] ids = new String[messages.length];
+        List<String> parsedIds = new ArrayList<>(messages.length);
+        for (int i = 0; i < messages.length; i++) {
+            try {
+                ids[i] = new String(messages[i].getContent().readAllBytes());
+                parsedIds.add(ids[i]);
+            }
+            catch (Exception e) {
+                results[i] = Result.PERMANENT_FAILURE;
+            }
+        }
+        if (parsedIds.isEmpty()) {
+            return results;
+        }
+        Result batchResult;
+        try {
+            profileService.deleteProfiles(authority, parsedIds.toArray(new String[0]));
+            batchResult = Result.SUCCESS;
+        }
+        catch (Exception e) {
+            batchResult = mapExceptionToResult(e);
+        }
+        for (int i = 0; i < messages.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if (batchResult == Result.PERMANENT_FAILURE) {
+                try {
+                    profileService.deleteProfile(authority, ids[i]);
+                    results[i] = Result.SUCCESS;
+                }
+                catch (Exception e) {
+                    results[i] = mapExceptionToResult(e);
+                }
+            }
+            else {
+                results[i] = batchResult;
+            }
+        }
+        return results;
+    }
+
+    private static Result mapExceptionToResult(Exception e) {
+        if (e.getClass() == NotFoundException.class) {
+            return Result.SUCCESS;
+        }
+        if (e.getClass() == IllegalArgumentException.class || e.getClass() == AccessDeniedException.class) {
+            return Result.PERMANENT_FAILURE;
+        }
+        System.out.println("Unexpected exception:\n" + e);
+        return Result.TRANSIENT_FAILURE;
+    }
+
+    public enum Result {
+        SUCCESS,
+        TRANSIENT_FAILURE,
+        PERMANENT_FAILURE
     }
 
     public static class Message {
@@ -1,6 +1,7 @@
 package base.profile.controller;
 
 import base.profile.service.ProfileService;
+import base.profile.service.RateLimiter;
 import base.profile.service.model.IllegalArgumentException;
 import base.profile.service.model.*;
 import com.google.gson.Gson;
@@ -10,18 +11,27 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class ProfileHttpController {
     private final ProfileService profileService;
+    private final RateLimiter rateLimiter;
     private final Gson gson;
 
     public ProfileHttpController(ProfileService profileService) {
+        this(profileService, null);
+    }
+
+    public ProfileHttpController(ProfileService profileService, RateLimiter rateLimiter) {
         if (profileService == null) {
             throw new RuntimeException("Invalid profileService provided to ProfileHttpController constructor");
         }
         this.profileService = profileService;
+        this.rateLimiter = rateLimiter;
         gson = new GsonBuilder().create();
     }
 
@@ -36,6 +46,10 @@ public class ProfileHttpController {
         catch (Exception e) {
             return new Response((short) 400, null, null);
         }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
         String accountId = null;
         String name = null;
         if (request.getQueryParameters() != null) {
@@ -68,6 +82,10 @@ public class ProfileHttpController {
         catch (Exception e) {
             return new Response((short) 400, null, null);
         }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
         if (request.getHeaders() == null || request.getHeaders().get("content-type") == null || request.getHeaders().get("content-type").isEmpty() || !"application/json".equals(request.getHeaders().get("content-type").get(0))) {
             return new Response((short) 400, null, null);
         }
@@ -103,6 +121,10 @@ public class ProfileHttpController {
         catch (Exception e) {
             return new Response((short) 400, null, null);
         }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
         if (request.getHeaders() == null || request.getHeaders().get("content-type") == null || request.getHeaders().get("content-type").isEmpty() || !"application/json".equals(request.getHeaders().get("content-type").get(0))) {
             return new Response((short) 400, null, null);
         }
@@ -144,6 +166,10 @@ public class ProfileHttpController {
         catch (Exception e) {
             return new Response((short) 400, null, null);
         }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
         String accountId = null;
         if (request.getQueryParameters() != null) {
             if (request.getQueryParameters().get("id") != null && !request.getQueryParameters().get("id").isEmpty()) {
@@ -159,6 +185,195 @@ public class ProfileHttpController {
         return new Response((short) 200, null, null);
     }
 
+    public Response readProfileAttribute(Request request) {
+        if (request == null) {
+            throw new RuntimeException("Invalid request provided to ProfileHttpController.readAttribute()");
+        }
+        Authority authority;
+        try {
+            authority = parseAuthority(request);
+        }
+        catch (Exception e) {
+            return new Response((short) 400, null, null);
+        }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
+        String accountId = null;
+        String name = null;
+        if (request.getQueryParameters() != null) {
+            if (request.getQueryParameters().get("id") != null && !request.getQueryParameters().get("id").isEmpty()) {
+                accountId = request.getQueryParameters().get("id").get(0);
+            }
+            if (request.getQueryParameters().get("name") != null && !request.getQueryParameters().get("name").isEmpty()) {
+                name = request.getQueryParameters().get("name").get(0);
+            }
+        }
+        ProfileAttribute attribute;
+        try {
+            attribute = profileService.readProfileAttribute(authority, accountId, name);
+        }
+        catch (Exception e) {
+            return new Response(mapExceptionToStatusCode(e), null, null);
+        }
+        String etag = "\"" + attribute.getId() + "\"";
+        Map<String, List<String>> responseHeaders = new HashMap<>();
+        responseHeaders.put("etag", List.of(etag));
+        responseHeaders.put("accept-ranges", List.of("bytes"));
+        if (etag.equals(getHeader(request, "if-none-match"))) {
+            return new Response((short) 304, responseHeaders, null);
+        }
+        short status = 200;
+        long start = 0;
+        long end = attribute.getSize();
+        String range = getHeader(request, "range");
+        String ifRange = getHeader(request, "if-range");
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, attribute.getSize());
+            if (bounds != null && bounds.length == 0) {
+                responseHeaders.put("content-range", List.of("bytes */" + attribute.getSize()));
+                return new Response((short) 416, responseHeaders, null);
+            }
+            if (bounds != null) {
+                status = 206;
+                start = bounds[0];
+                end = bounds[1];
+                responseHeaders.put("content-range", List.of("bytes " + start + "-" + (end - 1) + "/" + attribute.getSize()));
+            }
+        }
+        responseHeaders.put("content-type", List.of(attribute.getContentType()));
+        responseHeaders.put("content-length", List.of(String.valueOf(end - start)));
+        return new Response(status, responseHeaders, null, new FileRegion(attribute.getPath(), start, end - start));
+    }
+
+    public Response updateProfileAttribute(Request request) {
+        if (request == null) {
+            throw new RuntimeException("Invalid request provided to ProfileHttpController.updateAttribute()");
+        }
+        Authority authority;
+        try {
+            authority = parseAuthority(request);
+        }
+        catch (Exception e) {
+            return new Response((short) 400, null, null);
+        }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
+        String contentType = getHeader(request, "content-type");
+        if (contentType == null || request.getBody() == null) {
+            return new Response((short) 400, null, null);
+        }
+        String accountId = null;
+        String name = null;
+        if (request.getQueryParameters() != null) {
+            if (request.getQueryParameters().get("id") != null && !request.getQueryParameters().get("id").isEmpty()) {
+                accountId = request.getQueryParameters().get("id").get(0);
+            }
+            if (request.getQueryParameters().get("name") != null && !request.getQueryParameters().get("name").isEmpty()) {
+                name = request.getQueryParameters().get("name").get(0);
+            }
+        }
+        try {
+            profileService.updateProfileAttribute(authority, accountId, name, contentType, request.getBody());
+        }
+        catch (Exception e) {
+            return new Response(mapExceptionToStatusCode(e), null, null);
+        }
+        return new Response((short) 200, null, null);
+    }
+
+    public Response deleteProfileAttribute(Request request) {
+        if (request == null) {
+            throw new RuntimeException("Invalid request provided to ProfileHttpController.deleteAttribute()");
+        }
+        Authority authority;
+        try {
+            authority = parseAuthority(request);
+        }
+        catch (Exception e) {
+            return new Response((short) 400, null, null);
+        }
+        Response rateLimitResponse = applyRateLimit(authority);
+        if (rateLimitResponse != null) {
+            return rateLimitResponse;
+        }
+        String accountId = null;
+        String name = null;
+        if (request.getQueryParameters() != null) {
+            if (request.getQueryParameters().get("id") != null && !request.getQueryParameters().get("id").isEmpty()) {
+                accountId = request.getQueryParameters().get("id").get(0);
+            }
+            if (request.getQueryParameters().get("name") != null && !request.getQueryParameters().get("name").isEmpty()) {
+                name = request.getQueryParameters().get("name").get(0);
+            }
+        }
+        try {
+            profileService.deleteProfileAttribute(authority, accountId, name);
+        }
+        catch (Exception e) {
+            return new Response(mapExceptionToStatusCode(e), null, null);
+        }
+        return new Response((short) 200, null, null);
+    }
+
+    private Response applyRateLimit(Authority authority) {
+        if (rateLimiter == null) {
+            return null;
+        }
+        long retryAfterNanos = rateLimiter.acquire(authority);
+        if (retryAfterNanos <= 0) {
+            return null;
+        }
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new Response((short) 429, Map.of("retry-after", List.of(String.valueOf(retryAfterSeconds))), null);
+    }
+
+    private static String getHeader(Request request, String name) {
+        if (request.getHeaders() == null || request.getHeaders().get(name) == null || request.getHeaders().get(name).isEmpty()) {
+            return null;
+        }
+        return request.getHeaders().get(name).get(0);
+    }
+
+    private static long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        int separatorIndex = range.indexOf('-');
+        if (separatorIndex < 0) {
+            return null;
+        }
+        String first = range.substring("bytes=".length(), separatorIndex).trim();
+        String last = range.substring(separatorIndex + 1).trim();
+        try {
+            if (first.length() == 0) {
+                long suffixLength = last.length() == 0 ? -1 : Long.parseLong(last);
+                if (suffixLength < 0) {
+                    return null;
+                }
+                if (suffixLength == 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, size - suffixLength), size };
+            }
+            long start = Long.parseLong(first);
+            long lastIndex = last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || lastIndex < start) {
+                return null;
+            }
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[] { start, lastIndex >= size - 1 ? size : lastIndex + 1 };
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private static Authority parseAuthority(Request request) throws Exception {
         if (request.getHeaders() == null) {
             return null;
@@ -174,7 +389,7 @@ public class ProfileHttpController {
                 authority.setRoles(Short.parseShort(request.getHeaders().get("authority-roles").get(0)));
             }
             catch (Exception e) {
-                throw new Exception();
+                throw new IllegalArgumentException();
             }
             isFieldSet = true;
         }
@@ -183,7 +398,7 @@ public class ProfileHttpController {
                 authority.setAuthTime(Long.parseLong(request.getHeaders().get("authority-auth-time").get(0)));
             }
             catch (Exception e) {
-                throw new Exception();
+                throw new IllegalArgumentException();
             }
             isFieldSet = true;
         }
@@ -203,6 +418,9 @@ public class ProfileHttpController {
         if (e.getClass() == ConflictException.class) {
             return 409;
         }
+        if (e.getClass() == UnavailableException.class) {
+            return 503;
+        }
         System.out.println("Unexpected exception:\n" + e);
         return 500;
     }
@@ -247,13 +465,19 @@ public class ProfileHttpController {
         private short status;
         private Map<String, List<String>> headers;
         private InputStream body;
+        private FileRegion file;
 
         public Response() { }
 
         public Response(short status, Map<String, List<String>> headers, InputStream body) {
+            this(status, headers, body, null);
+        }
+
+        public Response(short status, Map<String, List<String>> headers, InputStream body, FileRegion file) {
             this.status = status;
             this.headers = headers;
             this.body = body;
+            this.file = file;
         }
 
         public short getStatus() {
@@ -279,5 +503,51 @@ public class ProfileHttpController {
         public void setBody(InputStream body) {
             this.body = body;
         }
+
+        public FileRegion getFile() {
+            return file;
+        }
+
+        public void setFile(FileRegion file) {
+            this.file = file;
+        }
+    }
+
+    public static class FileRegion {
+        private Path path;
+        private long position;
+        private long count;
+
+        public FileRegion() { }
+
+        public FileRegion(Path path, long position, long count) {
+            this.path = path;
+            this.position = position;
+            this.count = count;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public void setPosition(long position) {
+            this.position = position;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
     }
 }
@@ -0,0 +1,243 @@
+package base.profile.repository;
+
+import base.profile.AccountId;
+import base.profile.repository.model.ConflictException;
+import base.profile.repository.model.IllegalArgumentException;
+import base.profile.repository.model.Profile;
+import base.profile.repository.model.ProfileAttribute;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class BatchingProfileRepository implements ProfileRepository {
+    private static final long DEFAULT_WINDOW_MICROS = 500;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final int MAX_BATCH_SIZE_MAX_VALUE = 1000;
+    private final ProfileRepository profileRepository;
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong keyCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private long windowNanos;
+    private int maxBatchSize;
+    private Batch currentBatch;
+
+    public BatchingProfileRepository(ProfileRepository profileRepository, Map<String, String> config) {
+        configure(config);
+        if (profileRepository == null) {
+            throw new RuntimeException("Invalid profileRepository provided to BatchingProfileRepository constructor");
+        }
+        this.profileRepository = profileRepository;
+    }
+
+    @Override
+    public Profile[] readByAccountId(String accountId) throws IllegalArgumentException {
+        if (accountId == null) {
+            throw new IllegalArgumentException();
+        }
+        return read(accountId);
+    }
+
+    @Override
+    public Profile[] readByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        return profileRepository.readByAccountIds(accountIds);
+    }
+
+    @Override
+    public Profile[] readByAccountIdAndName(String accountId, String name) throws IllegalArgumentException {
+        if (accountId == null) {
+            return profileRepository.readByAccountIdAndName(null, name);
+        }
+        Profile[] profiles = read(accountId);
+        if (name == null) {
+            return profiles;
+        }
+        List<Profile> output = new ArrayList<>(profiles.length);
+        for (Profile profile : profiles) {
+            if (name.equalsIgnoreCase(profile.getName())) {
+                output.add(profile);
+            }
+        }
+        return output.toArray(new Profile[0]);
+    }
+
+    @Override
+    public Profile[] readAfterAccountId(String accountId, int maxCount) throws IllegalArgumentException {
+        return profileRepository.readAfterAccountId(accountId, maxCount);
+    }
+
+    @Override
+    public Profile create(Profile profile) throws IllegalArgumentException, ConflictException {
+        return profileRepository.create(profile);
+    }
+
+    @Override
+    public Profile updateByAccountId(String accountId, String ownerId, Profile profile) throws IllegalArgumentException {
+        return profileRepository.updateByAccountId(accountId, ownerId, profile);
+    }
+
+    @Override
+    public Profile deleteByAccountId(String accountId, String ownerId) throws IllegalArgumentException {
+        return profileRepository.deleteByAccountId(accountId, ownerId);
+    }
+
+    @Override
+    public int deleteByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        return profileRepository.deleteByAccountIds(accountIds);
+    }
+
+    @Override
+    public ProfileAttribute readAttribute(String accountId, String name) throws IllegalArgumentException {
+        return profileRepository.readAttribute(accountId, name);
+    }
+
+    @Override
+    public int updateAttribute(String accountId, String ownerId, String name, ProfileAttribute attribute) throws IllegalArgumentException {
+        return profileRepository.updateAttribute(accountId, ownerId, name, attribute);
+    }
+
+    @Override
+    public String[] readReferencedBlobIds(String[] blobIds) throws IllegalArgumentException {
+        return profileRepository.readReferencedBlobIds(blobIds);
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) keyCount.get() / batches;
+    }
+
+    private Profile[] read(String accountId) throws IllegalArgumentException {
+        if (!AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        String key = AccountId.normalize(accountId);
+        requestCount.incrementAndGet();
+        Batch batch;
+        CompletableFuture<Profile[]> future;
+        boolean leader = false;
+        synchronized (this) {
+            if (currentBatch == null) {
+                currentBatch = new Batch(Thread.currentThread());
+                leader = true;
+            }
+            batch = currentBatch;
+            future = batch.futures.computeIfAbsent(key, batchKey -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                currentBatch = null;
+                batch.full = true;
+            }
+        }
+        if (leader) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remainingNanos;
+            while (!batch.full && (remainingNanos = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(this, remainingNanos);
+            }
+            synchronized (this) {
+                if (currentBatch == batch) {
+                    currentBatch = null;
+                }
+            }
+            execute(batch);
+        }
+        else if (batch.full) {
+            LockSupport.unpark(batch.leader);
+        }
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for batched profile read");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void execute(Batch batch) {
+        Map<String, CompletableFuture<Profile[]>> futures;
+        synchronized (this) {
+            futures = new HashMap<>(batch.futures);
+        }
+        batchCount.incrementAndGet();
+        keyCount.addAndGet(futures.size());
+        Map<String, List<Profile>> profilesByAccountId = new HashMap<>();
+        try {
+            for (Profile profile : profileRepository.readByAccountIds(futures.keySet().toArray(new String[0]))) {
+                profilesByAccountId.computeIfAbsent(profile.getAccountId(), key -> new ArrayList<>()).add(profile);
+            }
+        }
+        catch (Throwable e) {
+            for (CompletableFuture<Profile[]> future : futures.values()) {
+                future.completeExceptionally(e);
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return;
+        }
+        for (Map.Entry<String, CompletableFuture<Profile[]>> entry : futures.entrySet()) {
+            List<Profile> profiles = profilesByAccountId.get(entry.getKey());
+            entry.getValue().complete(profiles == null ? new Profile[0] : profiles.toArray(new Profile[0]));
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to BatchingProfileRepository constructor");
+        }
+        windowNanos = TimeUnit.MICROSECONDS.toNanos(parseNonNegativeLong(config.get("windowMicros"), DEFAULT_WINDOW_MICROS));
+        maxBatchSize = (int) parseNonNegativeLong(config.get("maxBatchSize"), DEFAULT_MAX_BATCH_SIZE);
+        if (maxBatchSize == 0 || maxBatchSize > MAX_BATCH_SIZE_MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to BatchingProfileRepository constructor");
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to BatchingProfileRepository constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to BatchingProfileRepository constructor");
+        }
+        return parsedValue;
+    }
+
+    private static class Batch {
+        private final Thread leader;
+        private final Map<String, CompletableFuture<Profile[]>> futures = new HashMap<>();
+        private volatile boolean full;
+
+        public Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package base.profile.repository;
+
+import base.profile.repository.model.Blob;
+import base.profile.repository.model.IllegalArgumentException;
+
+import java.io.InputStream;
+
+public interface BlobRepository {
+    Blob create(InputStream content, long maxSize) throws IllegalArgumentException;
+    Blob readById(String id) throws IllegalArgumentException;
+    Blob[] readAfterId(String id, int maxCount) throws IllegalArgumentException;
+    boolean deleteById(String id, long modifiedBefore) throws IllegalArgumentException;
+}
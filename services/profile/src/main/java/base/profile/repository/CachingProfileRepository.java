@@ -0,0 +1,354 @@
+package base.profile.repository;
+
+import base.profile.AccountId;
+import base.profile.repository.model.ConflictException;
+import base.profile.repository.model.IllegalArgumentException;
+import base.profile.repository.model.Profile;
+import base.profile.repository.model.ProfileAttribute;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CachingProfileRepository implements ProfileRepository {
+    private static final long DEFAULT_TTL = 300000;
+    private static final long DEFAULT_TOMBSTONE_TTL = 10000;
+    private static final double DEFAULT_EARLY_REFRESH_BETA = 1.0;
+    private static final String KEY_PREFIX = "profile:";
+    private final ProfileRepository profileRepository;
+    private final RemoteCache remoteCache;
+    private final Gson gson = new Gson();
+    private final Map<String, CompletableFuture<Profile[]>> pendingLoads = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong earlyRefreshCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private long ttl;
+    private long tombstoneTtl;
+    private double earlyRefreshBeta;
+
+    public CachingProfileRepository(ProfileRepository profileRepository, RemoteCache remoteCache, Map<String, String> config) {
+        configure(config);
+        if (profileRepository == null) {
+            throw new RuntimeException("Invalid profileRepository provided to CachingProfileRepository constructor");
+        }
+        if (remoteCache == null) {
+            throw new RuntimeException("Invalid remoteCache provided to CachingProfileRepository constructor");
+        }
+        this.profileRepository = profileRepository;
+        this.remoteCache = remoteCache;
+    }
+
+    @Override
+    public Profile[] readByAccountId(String accountId) throws IllegalArgumentException {
+        if (accountId == null) {
+            throw new IllegalArgumentException();
+        }
+        return read(accountId);
+    }
+
+    @Override
+    public Profile[] readByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        if (accountIds == null) {
+            throw new IllegalArgumentException();
+        }
+        Map<String, String> accountIdsByKey = new LinkedHashMap<>();
+        for (String accountId : accountIds) {
+            if (accountId == null) {
+                throw new IllegalArgumentException();
+            }
+            accountIdsByKey.putIfAbsent(KEY_PREFIX + AccountId.normalize(accountId), accountId);
+        }
+        Map<String, String> values = null;
+        try {
+            values = remoteCache.getAll(accountIdsByKey.keySet());
+        }
+        catch (Exception e) {
+            System.out.println("Failed to read from remote cache:\n" + e);
+        }
+        List<Profile> output = new ArrayList<>();
+        List<String> missedKeys = new ArrayList<>();
+        for (String key : accountIdsByKey.keySet()) {
+            Entry entry = values == null ? null : parseEntry(values.get(key));
+            if (isFresh(entry)) {
+                hitCount.incrementAndGet();
+                Collections.addAll(output, entry.profiles);
+            }
+            else {
+                missCount.incrementAndGet();
+                missedKeys.add(key);
+            }
+        }
+        if (missedKeys.isEmpty()) {
+            return output.toArray(new Profile[0]);
+        }
+        String[] missedAccountIds = new String[missedKeys.size()];
+        for (int i = 0; i < missedAccountIds.length; i++) {
+            missedAccountIds[i] = accountIdsByKey.get(missedKeys.get(i));
+        }
+        long startTime = System.currentTimeMillis();
+        Profile[] profiles = profileRepository.readByAccountIds(missedAccountIds);
+        long endTime = System.currentTimeMillis();
+        Map<String, List<Profile>> profilesByKey = new HashMap<>();
+        for (Profile profile : profiles) {
+            profilesByKey.computeIfAbsent(KEY_PREFIX + AccountId.normalize(profile.getAccountId()), key -> new ArrayList<>()).add(profile);
+        }
+        for (String key : missedKeys) {
+            List<Profile> keyProfiles = profilesByKey.getOrDefault(key, Collections.emptyList());
+            output.addAll(keyProfiles);
+            if (values != null) {
+                store(key, values.get(key), keyProfiles.toArray(new Profile[0]), startTime, endTime);
+            }
+        }
+        return output.toArray(new Profile[0]);
+    }
+
+    @Override
+    public Profile[] readByAccountIdAndName(String accountId, String name) throws IllegalArgumentException {
+        if (accountId == null) {
+            return profileRepository.readByAccountIdAndName(null, name);
+        }
+        Profile[] profiles = read(accountId);
+        if (name == null) {
+            return profiles;
+        }
+        List<Profile> output = new ArrayList<>(profiles.length);
+        for (Profile profile : profiles) {
+            if (name.equalsIgnoreCase(profile.getName())) {
+                output.add(profile);
+            }
+        }
+        return output.toArray(new Profile[0]);
+    }
+
+    @Override
+    public Profile[] readAfterAccountId(String accountId, int maxCount) throws IllegalArgumentException {
+        return profileRepository.readAfterAccountId(accountId, maxCount);
+    }
+
+    @Override
+    public Profile create(Profile profile) throws IllegalArgumentException, ConflictException {
+        try {
+            return profileRepository.create(profile);
+        }
+        finally {
+            if (profile != null) {
+                invalidate(profile.getAccountId());
+            }
+        }
+    }
+
+    @Override
+    public Profile updateByAccountId(String accountId, String ownerId, Profile profile) throws IllegalArgumentException {
+        try {
+            return profileRepository.updateByAccountId(accountId, ownerId, profile);
+        }
+        finally {
+            invalidate(accountId);
+        }
+    }
+
+    @Override
+    public Profile deleteByAccountId(String accountId, String ownerId) throws IllegalArgumentException {
+        try {
+            return profileRepository.deleteByAccountId(accountId, ownerId);
+        }
+        finally {
+            invalidate(accountId);
+        }
+    }
+
+    @Override
+    public int deleteByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        try {
+            return profileRepository.deleteByAccountIds(accountIds);
+        }
+        finally {
+            if (accountIds != null) {
+                for (String accountId : accountIds) {
+                    invalidate(accountId);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ProfileAttribute readAttribute(String accountId, String name) throws IllegalArgumentException {
+        return profileRepository.readAttribute(accountId, name);
+    }
+
+    @Override
+    public int updateAttribute(String accountId, String ownerId, String name, ProfileAttribute attribute) throws IllegalArgumentException {
+        return profileRepository.updateAttribute(accountId, ownerId, name, attribute);
+    }
+
+    @Override
+    public String[] readReferencedBlobIds(String[] blobIds) throws IllegalArgumentException {
+        return profileRepository.readReferencedBlobIds(blobIds);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEarlyRefreshCount() {
+        return earlyRefreshCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private Profile[] read(String accountId) throws IllegalArgumentException {
+        String key = KEY_PREFIX + AccountId.normalize(accountId);
+        String value = null;
+        boolean observed = false;
+        try {
+            value = remoteCache.get(key);
+            observed = true;
+        }
+        catch (Exception e) {
+            System.out.println("Failed to read from remote cache:\n" + e);
+        }
+        Entry entry = parseEntry(value);
+        if (isFresh(entry)) {
+            hitCount.incrementAndGet();
+            return entry.profiles;
+        }
+        missCount.incrementAndGet();
+        return load(accountId, key, observed, value);
+    }
+
+    private Profile[] load(String accountId, String key, boolean observed, String observedValue) throws IllegalArgumentException {
+        CompletableFuture<Profile[]> pendingLoad = new CompletableFuture<>();
+        CompletableFuture<Profile[]> existingLoad = pendingLoads.putIfAbsent(key, pendingLoad);
+        if (existingLoad != null) {
+            coalescedCount.incrementAndGet();
+            try {
+                return existingLoad.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for profile load");
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    throw (IllegalArgumentException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            Profile[] profiles = profileRepository.readByAccountId(accountId);
+            long endTime = System.currentTimeMillis();
+            if (observed) {
+                store(key, observedValue, profiles, startTime, endTime);
+            }
+            pendingLoad.complete(profiles);
+            return profiles;
+        }
+        catch (IllegalArgumentException | RuntimeException e) {
+            pendingLoad.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            pendingLoads.remove(key, pendingLoad);
+        }
+    }
+
+    private Entry parseEntry(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return gson.fromJson(value, Entry.class);
+        }
+        catch (Exception e) {
+            System.out.println("Failed to read from remote cache:\n" + e);
+            return null;
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        if (entry == null || entry.profiles == null) {
+            return false;
+        }
+        double earlyRefreshOffset = entry.loadDuration * earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() + earlyRefreshOffset < entry.expirationTime) {
+            return true;
+        }
+        earlyRefreshCount.incrementAndGet();
+        return false;
+    }
+
+    private void store(String key, String observedValue, Profile[] profiles, long startTime, long endTime) {
+        Entry entry = new Entry();
+        entry.profiles = profiles;
+        entry.loadDuration = endTime - startTime;
+        entry.expirationTime = endTime + ttl;
+        try {
+            remoteCache.compareAndSet(key, observedValue, gson.toJson(entry), ttl);
+        }
+        catch (Exception e) {
+            System.out.println("Failed to write to remote cache:\n" + e);
+        }
+    }
+
+    private void invalidate(String accountId) {
+        if (accountId == null) {
+            return;
+        }
+        Entry tombstone = new Entry();
+        tombstone.tombstone = ThreadLocalRandom.current().nextLong();
+        try {
+            remoteCache.set(KEY_PREFIX + AccountId.normalize(accountId), gson.toJson(tombstone), tombstoneTtl);
+        }
+        catch (Exception e) {
+            System.out.println("Failed to write to remote cache:\n" + e);
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to CachingProfileRepository constructor");
+        }
+        String ttlString = config.get("ttl");
+        String tombstoneTtlString = config.get("tombstoneTtl");
+        String earlyRefreshBetaString = config.get("earlyRefreshBeta");
+        try {
+            ttl = ttlString == null || ttlString.length() == 0 ? DEFAULT_TTL : Long.parseLong(ttlString);
+            tombstoneTtl = tombstoneTtlString == null || tombstoneTtlString.length() == 0 ? DEFAULT_TOMBSTONE_TTL : Long.parseLong(tombstoneTtlString);
+            earlyRefreshBeta = earlyRefreshBetaString == null || earlyRefreshBetaString.length() == 0 ? DEFAULT_EARLY_REFRESH_BETA : Double.parseDouble(earlyRefreshBetaString);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to CachingProfileRepository constructor");
+        }
+        if (ttl <= 0 || tombstoneTtl <= 0 || earlyRefreshBeta < 0 || Double.isNaN(earlyRefreshBeta)) {
+            throw new RuntimeException("Invalid config provided to CachingProfileRepository constructor");
+        }
+    }
+
+    private static class Entry {
+        private Profile[] profiles;
+        private long loadDuration;
+        private long expirationTime;
+        private long tombstone;
+    }
+}
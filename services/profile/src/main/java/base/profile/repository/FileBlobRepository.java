@@ -0,0 +1,288 @@
+package base.profile.repository;
+
+import base.profile.repository.model.Blob;
+import base.profile.repository.model.IllegalArgumentException;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static base.profile.Common.wrapException;
+
+public class FileBlobRepository implements BlobRepository {
+    private static final long DEFAULT_BUFFER_SIZE = 65536;
+    private static final long BUFFER_SIZE_MAX_VALUE = 16777216;
+    private static final String TEMPORARY_DIRECTORY_NAME = "tmp";
+    private static final int ID_LENGTH = 64;
+    private static final int PREFIX_LENGTH = 2;
+    private static final int LOCK_COUNT = 64;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private final Object[] locks = new Object[LOCK_COUNT];
+    private final ThreadLocal<ByteBuffer> buffers;
+    private Path root;
+    private Path temporaryDirectory;
+    private int bufferSize;
+
+    public FileBlobRepository(Map<String, String> config) {
+        configure(config);
+        try {
+            Files.createDirectories(temporaryDirectory);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to open blob store");
+        }
+        if (!Files.isDirectory(root) || !Files.isWritable(root) || !Files.isWritable(temporaryDirectory)) {
+            throw new RuntimeException("Failed to open blob store");
+        }
+        for (int i = 0; i < LOCK_COUNT; i++) {
+            locks[i] = new Object();
+        }
+        buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(bufferSize));
+    }
+
+    @Override
+    public Blob create(InputStream content, long maxSize) throws IllegalArgumentException {
+        if (content == null || maxSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        Path temporaryPath = null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            temporaryPath = Files.createTempFile(temporaryDirectory, "blob-", ".tmp");
+            ReadableByteChannel source = Channels.newChannel(content);
+            ByteBuffer buffer = buffers.get();
+            long size = 0;
+            try (FileChannel target = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+                while (true) {
+                    buffer.clear();
+                    int readCount = source.read(buffer);
+                    if (readCount < 0) {
+                        break;
+                    }
+                    size += readCount;
+                    if (size > maxSize) {
+                        throw new IllegalArgumentException();
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.rewind();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                }
+                target.force(true);
+            }
+            String id = toHex(digest.digest());
+            Path path = resolve(id);
+            Files.createDirectories(path.getParent());
+            synchronized (getLock(id)) {
+                try {
+                    Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (FileAlreadyExistsException e) {
+                    Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+                    Files.delete(temporaryPath);
+                }
+                temporaryPath = null;
+                return new Blob(id, path, size, Files.getLastModifiedTime(path).toMillis());
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to write blob");
+        }
+        finally {
+            if (temporaryPath != null) {
+                try {
+                    Files.deleteIfExists(temporaryPath);
+                }
+                catch (Exception ignored) { }
+            }
+        }
+    }
+
+    @Override
+    public Blob readById(String id) throws IllegalArgumentException {
+        if (!validateId(id)) {
+            throw new IllegalArgumentException();
+        }
+        try {
+            return readBlob(id, resolve(id));
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to read blob");
+        }
+    }
+
+    @Override
+    public Blob[] readAfterId(String id, int maxCount) throws IllegalArgumentException {
+        if (id != null && !validateId(id)) {
+            throw new IllegalArgumentException();
+        }
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        List<Blob> output = new ArrayList<>();
+        try {
+            for (String prefix : listNames(root, PREFIX_LENGTH)) {
+                if (id != null && prefix.compareTo(id.substring(0, PREFIX_LENGTH)) < 0) {
+                    continue;
+                }
+                Path directory = root.resolve(prefix);
+                for (String blobId : listNames(directory, ID_LENGTH)) {
+                    if (id != null && blobId.compareTo(id) <= 0) {
+                        continue;
+                    }
+                    Blob blob = readBlob(blobId, directory.resolve(blobId));
+                    if (blob == null) {
+                        continue;
+                    }
+                    output.add(blob);
+                    if (output.size() >= maxCount) {
+                        return output.toArray(new Blob[0]);
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to list blobs");
+        }
+        return output.toArray(new Blob[0]);
+    }
+
+    @Override
+    public boolean deleteById(String id, long modifiedBefore) throws IllegalArgumentException {
+        if (!validateId(id)) {
+            throw new IllegalArgumentException();
+        }
+        Path path = resolve(id);
+        synchronized (getLock(id)) {
+            try {
+                if (Files.getLastModifiedTime(path).toMillis() >= modifiedBefore) {
+                    return false;
+                }
+                Files.delete(path);
+                return true;
+            }
+            catch (NoSuchFileException e) {
+                return false;
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to delete blob");
+            }
+        }
+    }
+
+    private Path resolve(String id) {
+        return root.resolve(id.substring(0, PREFIX_LENGTH)).resolve(id);
+    }
+
+    private Object getLock(String id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_COUNT)];
+    }
+
+    private static Blob readBlob(String id, Path path) throws Exception {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+        return new Blob(id, path, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    private static List<String> listNames(Path directory, int length) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.length() == length && isHex(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        catch (NoSuchFileException e) {
+            return names;
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static boolean validateId(String id) {
+        return id != null && id.length() == ID_LENGTH && isHex(id);
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char letter = value.charAt(i);
+            if ((letter < '0' || letter > '9') && (letter < 'a' || letter > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] output = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            output[i * 2] = HEX_DIGITS[(bytes[i] >>> 4) & 0xf];
+            output[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(output);
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        String pathString = config.get("path");
+        if (pathString == null || pathString.length() == 0) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        try {
+            root = Paths.get(pathString).normalize();
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        if (!root.isAbsolute()) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        temporaryDirectory = root.resolve(TEMPORARY_DIRECTORY_NAME);
+        long bufferSizeValue = parseNonNegativeLong(config.get("bufferSize"), DEFAULT_BUFFER_SIZE);
+        if (bufferSizeValue == 0 || bufferSizeValue > BUFFER_SIZE_MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        bufferSize = (int) bufferSizeValue;
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to FileBlobRepository constructor");
+        }
+        return parsedValue;
+    }
+}
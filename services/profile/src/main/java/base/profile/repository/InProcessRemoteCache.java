@@ -0,0 +1,121 @@
+package base.profile.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InProcessRemoteCache implements RemoteCache {
+    private static final int DEFAULT_CAPACITY = 10000;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public InProcessRemoteCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InProcessRemoteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new RuntimeException("Invalid capacity provided to InProcessRemoteCache constructor");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String get(String key) {
+        if (key == null) {
+            throw new RuntimeException("Invalid key provided to InProcessRemoteCache.get()");
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationTime - System.currentTimeMillis() <= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        if (keys == null) {
+            throw new RuntimeException("Invalid keys provided to InProcessRemoteCache.getAll()");
+        }
+        Map<String, String> output = new HashMap<>();
+        for (String key : keys) {
+            String value = get(key);
+            if (value != null) {
+                output.put(key, value);
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public void set(String key, String value, long ttl) {
+        if (key == null || value == null || ttl <= 0) {
+            throw new RuntimeException("Invalid arguments provided to InProcessRemoteCache.set()");
+        }
+        long currentTime = System.currentTimeMillis();
+        if (entries.size() >= capacity && !entries.containsKey(key)) {
+            evict(currentTime);
+        }
+        entries.put(key, new Entry(value, currentTime + ttl));
+    }
+
+    @Override
+    public boolean compareAndSet(String key, String expectedValue, String value, long ttl) {
+        if (key == null || value == null || ttl <= 0) {
+            throw new RuntimeException("Invalid arguments provided to InProcessRemoteCache.compareAndSet()");
+        }
+        long currentTime = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expirationTime - currentTime <= 0) {
+            entries.remove(key, entry);
+            entry = null;
+        }
+        if (entry == null ? expectedValue != null : !entry.value.equals(expectedValue)) {
+            return false;
+        }
+        if (entry == null) {
+            if (entries.size() >= capacity) {
+                evict(currentTime);
+            }
+            return entries.putIfAbsent(key, new Entry(value, currentTime + ttl)) == null;
+        }
+        return entries.replace(key, entry, new Entry(value, currentTime + ttl));
+    }
+
+    @Override
+    public void delete(String key) {
+        if (key == null) {
+            throw new RuntimeException("Invalid key provided to InProcessRemoteCache.delete()");
+        }
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long currentTime) {
+        entries.values().removeIf(entry -> entry.expirationTime - currentTime <= 0);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() >= capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long expirationTime;
+
+        public Entry(String value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package base.profile.repository;
+
+import base.profile.repository.model.IllegalArgumentException;
+
+public interface LockRepository {
+    Lock tryLock(String name) throws IllegalArgumentException;
+
+    interface Lock extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
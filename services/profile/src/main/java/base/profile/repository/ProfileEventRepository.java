@@ -0,0 +1,12 @@
+package base.profile.repository;
+
+import base.profile.repository.model.IllegalArgumentException;
+import base.profile.repository.model.ProfileEvent;
+
+public interface ProfileEventRepository {
+    int relayEvents(int maxCount, EventHandler handler) throws IllegalArgumentException;
+
+    interface EventHandler {
+        void handle(ProfileEvent[] events) throws Exception;
+    }
+}
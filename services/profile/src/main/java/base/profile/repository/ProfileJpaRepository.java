@@ -1,23 +1,30 @@
 package base.profile.repository;
 
+import base.profile.AccountId;
 import base.profile.repository.model.ConflictException;
 import base.profile.repository.model.IllegalArgumentException;
-import base.profile.repository.model.NotFoundException;
 import base.profile.repository.model.Profile;
+import base.profile.repository.model.ProfileAttribute;
+import base.profile.repository.model.ProfileEvent;
+import com.google.gson.Gson;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.Persistence;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static base.profile.Common.wrapException;
 
-public class ProfileJpaRepository implements ProfileRepository {
-    private static final int ACCOUNT_ID_MAX_LENGTH = 36;
+public class ProfileJpaRepository implements ProfileRepository, ProfileEventRepository, LockRepository {
     private static final int NAME_MAX_LENGTH = 16;
+    private static final int BLOB_ID_MAX_LENGTH = 64;
+    private static final int CONTENT_TYPE_MAX_LENGTH = 64;
+    private static final int LOCK_NAME_MAX_LENGTH = 64;
     private final EntityManagerFactory entityManagerFactory;
+    private final Gson gson = new Gson();
 
     public ProfileJpaRepository(Map<String, String> config) {
         if (config == null) {
@@ -33,7 +40,7 @@ public class ProfileJpaRepository implements ProfileRepository {
 
     @Override
     public Profile[] readByAccountId(String accountId) throws IllegalArgumentException {
-        if (accountId == null || accountId.length() > ACCOUNT_ID_MAX_LENGTH) {
+        if (!AccountId.isValid(accountId)) {
             throw new IllegalArgumentException();
         }
         String queryString = "from Profile as x where x.accountId = :accountId";
@@ -41,7 +48,38 @@ public class ProfileJpaRepository implements ProfileRepository {
         try {
             entityManager.getTransaction().begin();
             TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
-            query.setParameter("accountId", accountId);
+            query.setParameter("accountId", AccountId.parse(accountId));
+            List<Profile> matches = query.getResultList();
+            entityManager.getTransaction().rollback();
+            return matches.toArray(new Profile[0]);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public Profile[] readByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        if (accountIds == null) {
+            throw new IllegalArgumentException();
+        }
+        for (String accountId : accountIds) {
+            if (!AccountId.isValid(accountId)) {
+                throw new IllegalArgumentException();
+            }
+        }
+        if (accountIds.length == 0) {
+            return new Profile[0];
+        }
+        String queryString = "from Profile as x where x.accountId in :accountIds";
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
+            query.setParameter("accountIds", parseAccountIds(accountIds));
             List<Profile> matches = query.getResultList();
             entityManager.getTransaction().rollback();
             return matches.toArray(new Profile[0]);
@@ -59,7 +97,7 @@ public class ProfileJpaRepository implements ProfileRepository {
         if (accountId == null && name == null) {
             throw new IllegalArgumentException();
         }
-        if (accountId != null && accountId.length() > ACCOUNT_ID_MAX_LENGTH) {
+        if (accountId != null && !AccountId.isValid(accountId)) {
             throw new IllegalArgumentException();
         }
         if (name != null && name.length() > NAME_MAX_LENGTH) {
@@ -82,7 +120,7 @@ public class ProfileJpaRepository implements ProfileRepository {
             entityManager.getTransaction().begin();
             TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
             if (accountId != null) {
-                query.setParameter("accountId", accountId);
+                query.setParameter("accountId", AccountId.parse(accountId));
             }
             if (name != null) {
                 query.setParameter("name", name);
@@ -99,6 +137,35 @@ public class ProfileJpaRepository implements ProfileRepository {
         }
     }
 
+    @Override
+    public Profile[] readAfterAccountId(String accountId, int maxCount) throws IllegalArgumentException {
+        if (accountId != null && !AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        String queryString = accountId == null ? "from Profile as x order by x.accountId" : "from Profile as x where x.accountId > :accountId order by x.accountId";
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
+            if (accountId != null) {
+                query.setParameter("accountId", AccountId.parse(accountId));
+            }
+            query.setMaxResults(maxCount);
+            List<Profile> matches = query.getResultList();
+            entityManager.getTransaction().rollback();
+            return matches.toArray(new Profile[0]);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
     @Override
     public Profile create(Profile profile) throws IllegalArgumentException, ConflictException {
         if (profile == null || !validateProfile(profile, true)) {
@@ -111,7 +178,7 @@ public class ProfileJpaRepository implements ProfileRepository {
             entityManager.getTransaction().begin();
             TypedQuery<Profile> query = entityManager.createQuery("from Profile as x where x.accountId = :accountId", Profile.class);
             try {
-                conflict = query.setParameter("accountId", profile.getAccountId()).getSingleResult();
+                conflict = query.setParameter("accountId", AccountId.parse(profile.getAccountId())).getSingleResult();
             }
             catch (Exception ignored) { }
             if (conflict != null) {
@@ -119,6 +186,7 @@ public class ProfileJpaRepository implements ProfileRepository {
                 throw new ConflictException();
             }
             entityManager.merge(entry);
+            entityManager.persist(createEvent(ProfileEvent.TYPE_CREATE, entry.getAccountId(), entry.getName()));
             entityManager.getTransaction().commit();
             return entry;
         }
@@ -134,34 +202,82 @@ public class ProfileJpaRepository implements ProfileRepository {
     }
 
     @Override
-    public Profile updateByAccountId(String accountId, Profile profile) throws IllegalArgumentException, NotFoundException {
-        if (accountId == null || accountId.length() > ACCOUNT_ID_MAX_LENGTH) {
+    public Profile updateByAccountId(String accountId, String ownerId, Profile profile) throws IllegalArgumentException {
+        if (!AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (ownerId != null && !AccountId.isValid(ownerId)) {
             throw new IllegalArgumentException();
         }
         if (profile == null || !validateProfile(profile, false)) {
             throw new IllegalArgumentException();
         }
-        String queryString = "from Profile as x where x.accountId = :accountId";
+        String selectQueryString = "select x.name from Profile as x where x.accountId = :accountId";
+        String updateQueryString = "update Profile as x set x.name = :name where x.accountId = :accountId";
+        if (ownerId != null) {
+            updateQueryString += " and x.accountId = :ownerId";
+        }
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         try {
-            Profile match = null;
             entityManager.getTransaction().begin();
-            TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
-            query.setParameter("accountId", accountId);
-            try {
-                match = query.getSingleResult();
+            TypedQuery<String> selectQuery = entityManager.createQuery(selectQueryString, String.class);
+            selectQuery.setParameter("accountId", AccountId.parse(accountId));
+            selectQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+            List<String> matchedNames = selectQuery.getResultList();
+            Query updateQuery = entityManager.createQuery(updateQueryString);
+            updateQuery.setParameter("name", profile.getName());
+            updateQuery.setParameter("accountId", AccountId.parse(accountId));
+            if (ownerId != null) {
+                updateQuery.setParameter("ownerId", AccountId.parse(ownerId));
             }
-            catch (Exception ignored) { }
-            if (match == null) {
+            if (matchedNames.isEmpty() || updateQuery.executeUpdate() == 0) {
                 entityManager.getTransaction().rollback();
-                throw new NotFoundException();
+                return null;
             }
-            match.setName(profile.getName());
+            entityManager.persist(createEvent(ProfileEvent.TYPE_UPDATE, accountId, profile.getName()));
             entityManager.getTransaction().commit();
-            return match;
+            return new Profile(accountId, matchedNames.get(0));
         }
-        catch (NotFoundException e) {
-            throw e;
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public Profile deleteByAccountId(String accountId, String ownerId) throws IllegalArgumentException {
+        if (!AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (ownerId != null && !AccountId.isValid(ownerId)) {
+            throw new IllegalArgumentException();
+        }
+        String selectQueryString = "select x.name from Profile as x where x.accountId = :accountId";
+        String deleteQueryString = "delete from Profile as x where x.accountId = :accountId";
+        if (ownerId != null) {
+            deleteQueryString += " and x.accountId = :ownerId";
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            TypedQuery<String> selectQuery = entityManager.createQuery(selectQueryString, String.class);
+            selectQuery.setParameter("accountId", AccountId.parse(accountId));
+            selectQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+            List<String> matchedNames = selectQuery.getResultList();
+            Query deleteQuery = entityManager.createQuery(deleteQueryString);
+            deleteQuery.setParameter("accountId", AccountId.parse(accountId));
+            if (ownerId != null) {
+                deleteQuery.setParameter("ownerId", AccountId.parse(ownerId));
+            }
+            if (matchedNames.isEmpty() || deleteQuery.executeUpdate() == 0) {
+                entityManager.getTransaction().rollback();
+                return null;
+            }
+            entityManager.persist(createEvent(ProfileEvent.TYPE_DELETE, accountId, null));
+            entityManager.getTransaction().commit();
+            return new Profile(accountId, matchedNames.get(0));
         }
         catch (Exception e) {
             throw wrapException(e, "Failed to execute database transaction");
@@ -172,24 +288,184 @@ public class ProfileJpaRepository implements ProfileRepository {
     }
 
     @Override
-    public int deleteByAccountId(String accountId) throws IllegalArgumentException {
-        if (accountId == null || accountId.length() > ACCOUNT_ID_MAX_LENGTH) {
+    public int deleteByAccountIds(String[] accountIds) throws IllegalArgumentException {
+        if (accountIds == null) {
             throw new IllegalArgumentException();
         }
-        String queryString = "from Profile as x where x.accountId = :accountId";
+        for (String accountId : accountIds) {
+            if (!AccountId.isValid(accountId)) {
+                throw new IllegalArgumentException();
+            }
+        }
+        if (accountIds.length == 0) {
+            return 0;
+        }
+        String selectQueryString = "select x.accountId from Profile as x where x.accountId in :accountIds";
+        String deleteQueryString = "delete from Profile as x where x.accountId in :accountIds";
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         try {
             entityManager.getTransaction().begin();
-            TypedQuery<Profile> query = entityManager.createQuery(queryString, Profile.class);
-            query.setParameter("accountId", accountId);
-            List<Profile> matches = query.getResultList();
-            for (Profile match : matches) {
-                entityManager.remove(match);
+            TypedQuery<UUID> selectQuery = entityManager.createQuery(selectQueryString, UUID.class);
+            selectQuery.setParameter("accountIds", parseAccountIds(accountIds));
+            selectQuery.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+            List<UUID> matchedAccountIds = selectQuery.getResultList();
+            if (matchedAccountIds.isEmpty()) {
+                entityManager.getTransaction().rollback();
+                return 0;
+            }
+            Query deleteQuery = entityManager.createQuery(deleteQueryString);
+            deleteQuery.setParameter("accountIds", matchedAccountIds);
+            int deleteCount = deleteQuery.executeUpdate();
+            for (UUID matchedAccountId : matchedAccountIds) {
+                entityManager.persist(createEvent(ProfileEvent.TYPE_DELETE, AccountId.format(matchedAccountId), null));
+            }
+            entityManager.getTransaction().commit();
+            return deleteCount;
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public ProfileAttribute readAttribute(String accountId, String name) throws IllegalArgumentException {
+        if (!AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (!validateAttributeName(name)) {
+            throw new IllegalArgumentException();
+        }
+        String queryString = "select x." + name + "BlobId, x." + name + "ContentType from Profile as x where x.accountId = :accountId";
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            TypedQuery<Object[]> query = entityManager.createQuery(queryString, Object[].class);
+            query.setParameter("accountId", AccountId.parse(accountId));
+            List<Object[]> matches = query.getResultList();
+            entityManager.getTransaction().rollback();
+            if (matches.isEmpty() || matches.get(0)[0] == null) {
+                return null;
             }
+            return new ProfileAttribute((String) matches.get(0)[0], (String) matches.get(0)[1]);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public int updateAttribute(String accountId, String ownerId, String name, ProfileAttribute attribute) throws IllegalArgumentException {
+        if (!AccountId.isValid(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (ownerId != null && !AccountId.isValid(ownerId)) {
+            throw new IllegalArgumentException();
+        }
+        if (!validateAttributeName(name) || !validateAttribute(attribute)) {
+            throw new IllegalArgumentException();
+        }
+        String queryString = "update Profile as x set x." + name + "BlobId = :blobId, x." + name + "ContentType = :contentType where x.accountId = :accountId";
+        if (ownerId != null) {
+            queryString += " and x.accountId = :ownerId";
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            Query query = entityManager.createQuery(queryString);
+            query.setParameter("blobId", attribute == null ? null : attribute.getBlobId());
+            query.setParameter("contentType", attribute == null ? null : attribute.getContentType());
+            query.setParameter("accountId", AccountId.parse(accountId));
+            if (ownerId != null) {
+                query.setParameter("ownerId", AccountId.parse(ownerId));
+            }
+            int updateCount = query.executeUpdate();
+            entityManager.getTransaction().commit();
+            return updateCount;
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public String[] readReferencedBlobIds(String[] blobIds) throws IllegalArgumentException {
+        if (blobIds == null) {
+            throw new IllegalArgumentException();
+        }
+        for (String blobId : blobIds) {
+            if (blobId == null || blobId.length() > BLOB_ID_MAX_LENGTH) {
+                throw new IllegalArgumentException();
+            }
+        }
+        if (blobIds.length == 0) {
+            return new String[0];
+        }
+        List<String> blobIdList = Arrays.asList(blobIds);
+        Set<String> output = new LinkedHashSet<>();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            for (String name : new String[] { ProfileAttribute.NAME_AVATAR, ProfileAttribute.NAME_BIO }) {
+                TypedQuery<String> query = entityManager.createQuery("select x." + name + "BlobId from Profile as x where x." + name + "BlobId in :blobIds", String.class);
+                query.setParameter("blobIds", blobIdList);
+                output.addAll(query.getResultList());
+            }
+            entityManager.getTransaction().rollback();
+            return output.toArray(new String[0]);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public int relayEvents(int maxCount, EventHandler handler) throws IllegalArgumentException {
+        if (maxCount <= 0 || handler == null) {
+            throw new IllegalArgumentException();
+        }
+        String selectQueryString = "select * from ProfileEvents order by Id limit :maxCount for update skip locked";
+        String deleteQueryString = "delete from ProfileEvent as x where x.id in :ids";
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            Query selectQuery = entityManager.createNativeQuery(selectQueryString, ProfileEvent.class);
+            selectQuery.setParameter("maxCount", maxCount);
+            @SuppressWarnings("unchecked")
+            List<ProfileEvent> matches = selectQuery.getResultList();
+            if (matches.isEmpty()) {
+                entityManager.getTransaction().rollback();
+                return 0;
+            }
+            handler.handle(matches.toArray(new ProfileEvent[0]));
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (ProfileEvent match : matches) {
+                ids.add(match.getId());
+            }
+            Query deleteQuery = entityManager.createQuery(deleteQueryString);
+            deleteQuery.setParameter("ids", ids);
+            deleteQuery.executeUpdate();
             entityManager.getTransaction().commit();
             return matches.size();
         }
         catch (Exception e) {
+            if (entityManager.getTransaction().isActive()) {
+                try {
+                    entityManager.getTransaction().rollback();
+                }
+                catch (Exception ignored) { }
+            }
             throw wrapException(e, "Failed to execute database transaction");
         }
         finally {
@@ -197,11 +473,86 @@ public class ProfileJpaRepository implements ProfileRepository {
         }
     }
 
+    @Override
+    public Lock tryLock(String name) throws IllegalArgumentException {
+        if (name == null || name.length() == 0 || name.length() > LOCK_NAME_MAX_LENGTH) {
+            throw new IllegalArgumentException();
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        boolean acquired = false;
+        try {
+            entityManager.getTransaction().begin();
+            Object result = entityManager.createNativeQuery("select get_lock(?1, 0)").setParameter(1, name).getSingleResult();
+            acquired = result instanceof Number && ((Number) result).intValue() == 1;
+        }
+        catch (Exception e) {
+            closeLockSession(entityManager);
+            throw wrapException(e, "Failed to execute database transaction");
+        }
+        if (!acquired) {
+            closeLockSession(entityManager);
+            return null;
+        }
+        return () -> {
+            try {
+                entityManager.createNativeQuery("select release_lock(?1)").setParameter(1, name).getSingleResult();
+            }
+            catch (Exception ignored) { }
+            finally {
+                closeLockSession(entityManager);
+            }
+        };
+    }
+
+    private static void closeLockSession(EntityManager entityManager) {
+        try {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+        }
+        catch (Exception ignored) { }
+        finally {
+            entityManager.close();
+        }
+    }
+
+    private ProfileEvent createEvent(String type, String accountId, String name) {
+        String canonicalAccountId = AccountId.format(AccountId.parse(accountId));
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("accountId", canonicalAccountId);
+        if (name != null) {
+            payload.put("name", name);
+        }
+        return new ProfileEvent(type, canonicalAccountId, gson.toJson(payload), System.currentTimeMillis() / 1000);
+    }
+
+    private static List<UUID> parseAccountIds(String[] accountIds) {
+        List<UUID> output = new ArrayList<>(accountIds.length);
+        for (String accountId : accountIds) {
+            output.add(AccountId.parse(accountId));
+        }
+        return output;
+    }
+
+    private static boolean validateAttributeName(String name) {
+        return ProfileAttribute.NAME_AVATAR.equals(name) || ProfileAttribute.NAME_BIO.equals(name);
+    }
+
+    private static boolean validateAttribute(ProfileAttribute attribute) {
+        if (attribute == null) {
+            return true;
+        }
+        if (attribute.getBlobId() == null || attribute.getBlobId().length() > BLOB_ID_MAX_LENGTH) {
+            return false;
+        }
+        return attribute.getContentType() != null && attribute.getContentType().length() <= CONTENT_TYPE_MAX_LENGTH;
+    }
+
     private static boolean validateProfile(Profile profile, boolean validateAccountId) {
         if (profile == null) {
             return true;
         }
-        if (validateAccountId && (profile.getAccountId() == null || profile.getAccountId().length() > ACCOUNT_ID_MAX_LENGTH)) {
+        if (validateAccountId && !AccountId.isValid(profile.getAccountId())) {
             return false;
         }
         return profile.getName() != null && profile.getName().length() <= NAME_MAX_LENGTH;
@@ -2,13 +2,19 @@ package base.profile.repository;
 
 import base.profile.repository.model.ConflictException;
 import base.profile.repository.model.IllegalArgumentException;
-import base.profile.repository.model.NotFoundException;
 import base.profile.repository.model.Profile;
+import base.profile.repository.model.ProfileAttribute;
 
 public interface ProfileRepository {
     Profile[] readByAccountId(String accountId) throws IllegalArgumentException;
+    Profile[] readByAccountIds(String[] accountIds) throws IllegalArgumentException;
     Profile[] readByAccountIdAndName(String accountId, String name) throws IllegalArgumentException;
+    Profile[] readAfterAccountId(String accountId, int maxCount) throws IllegalArgumentException;
     Profile create(Profile profile) throws IllegalArgumentException, ConflictException;
-    Profile updateByAccountId(String accountId, Profile profile) throws IllegalArgumentException, NotFoundException;
-    int deleteByAccountId(String accountId) throws IllegalArgumentException;
+    Profile updateByAccountId(String accountId, String ownerId, Profile profile) throws IllegalArgumentException;
+    Profile deleteByAccountId(String accountId, String ownerId) throws IllegalArgumentException;
+    int deleteByAccountIds(String[] accountIds) throws IllegalArgumentException;
+    ProfileAttribute readAttribute(String accountId, String name) throws IllegalArgumentException;
+    int updateAttribute(String accountId, String ownerId, String name, ProfileAttribute attribute) throws IllegalArgumentException;
+    String[] readReferencedBlobIds(String[] blobIds) throws IllegalArgumentException;
 }
@@ -0,0 +1,12 @@
+package base.profile.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface RemoteCache {
+    String get(String key);
+    Map<String, String> getAll(Collection<String> keys);
+    void set(String key, String value, long ttl);
+    boolean compareAndSet(String key, String expectedValue, String value, long ttl);
+    void delete(String key);
+}
@@ -0,0 +1,51 @@
+package base.profile.repository.model;
+
+import java.nio.file.Path;
+
+public class Blob {
+    private String id;
+    private Path path;
+    private long size;
+    private long modifiedTime;
+
+    public Blob() { }
+
+    public Blob(String id, Path path, long size, long modifiedTime) {
+        this.id = id;
+        this.path = path;
+        this.size = size;
+        this.modifiedTime = modifiedTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void setPath(Path path) {
+        this.path = path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getModifiedTime() {
+        return modifiedTime;
+    }
+
+    public void setModifiedTime(long modifiedTime) {
+        this.modifiedTime = modifiedTime;
+    }
+}
@@ -2,6 +2,6 @@ package base.profile.repository.model;
 
 public class IllegalArgumentException extends Exception {
     public IllegalArgumentException() {
-        super("Illegal argument");
+        super("Illegal argument", null, false, false);
     }
 }
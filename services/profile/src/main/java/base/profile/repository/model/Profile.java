@@ -1,32 +1,43 @@
 package base.profile.repository.model;
 
+import base.profile.AccountId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import java.util.UUID;
+
 @Entity
 @Table(name = "Profiles")
 public class Profile {
     @Id
-    @Column(name = "AccountId", nullable = false)
-    private String accountId;
+    @Column(name = "AccountId", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID accountId;
     @Column(name = "Name", nullable = false)
     private String name;
+    @Column(name = "AvatarBlobId")
+    private String avatarBlobId;
+    @Column(name = "AvatarContentType")
+    private String avatarContentType;
+    @Column(name = "BioBlobId")
+    private String bioBlobId;
+    @Column(name = "BioContentType")
+    private String bioContentType;
 
     public Profile() { }
 
     public Profile(String accountId, String name) {
-        this.accountId = accountId;
+        this.accountId = AccountId.parse(accountId);
         this.name = name;
     }
 
     public String getAccountId() {
-        return accountId;
+        return AccountId.format(accountId);
     }
 
     public void setAccountId(String accountId) {
-        this.accountId = accountId;
+        this.accountId = AccountId.parse(accountId);
     }
 
     public String getName() {
@@ -36,4 +47,36 @@ public class Profile {
     public void setName(String name) {
         this.name = name;
     }
+
+    public String getAvatarBlobId() {
+        return avatarBlobId;
+    }
+
+    public void setAvatarBlobId(String avatarBlobId) {
+        this.avatarBlobId = avatarBlobId;
+    }
+
+    public String getAvatarContentType() {
+        return avatarContentType;
+    }
+
+    public void setAvatarContentType(String avatarContentType) {
+        this.avatarContentType = avatarContentType;
+    }
+
+    public String getBioBlobId() {
+        return bioBlobId;
+    }
+
+    public void setBioBlobId(String bioBlobId) {
+        this.bioBlobId = bioBlobId;
+    }
+
+    public String getBioContentType() {
+        return bioContentType;
+    }
+
+    public void setBioContentType(String bioContentType) {
+        this.bioContentType = bioContentType;
+    }
 }
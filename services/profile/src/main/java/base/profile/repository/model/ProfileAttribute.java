@@ -0,0 +1,31 @@
+package base.profile.repository.model;
+
+public class ProfileAttribute {
+    public static final String NAME_AVATAR = "avatar";
+    public static final String NAME_BIO = "bio";
+    private String blobId;
+    private String contentType;
+
+    public ProfileAttribute() { }
+
+    public ProfileAttribute(String blobId, String contentType) {
+        this.blobId = blobId;
+        this.contentType = contentType;
+    }
+
+    public String getBlobId() {
+        return blobId;
+    }
+
+    public void setBlobId(String blobId) {
+        this.blobId = blobId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,77 @@
+package base.profile.repository.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "ProfileEvents")
+public class ProfileEvent {
+    public static final String TYPE_CREATE = "profile.create";
+    public static final String TYPE_UPDATE = "profile.update";
+    public static final String TYPE_DELETE = "profile.delete";
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "Id", nullable = false)
+    private Long id;
+    @Column(name = "Type", nullable = false)
+    private String type;
+    @Column(name = "AccountId", nullable = false)
+    private String accountId;
+    @Column(name = "Payload", nullable = false)
+    private String payload;
+    @Column(name = "CreationTime", nullable = false)
+    private long creationTime;
+
+    public ProfileEvent() { }
+
+    public ProfileEvent(String type, String accountId, String payload, long creationTime) {
+        this.type = type;
+        this.accountId = accountId;
+        this.payload = payload;
+        this.creationTime = creationTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+}
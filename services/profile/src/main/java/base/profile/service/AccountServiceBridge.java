@@ -3,16 +3,45 @@ package base.profile.service;
 import base.profile.service.model.AccessDeniedException;
 import base.profile.service.model.Authority;
 import base.profile.service.model.IllegalArgumentException;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
+import java.io.InputStreamReader;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
 
-public class AccountServiceBridge implements AccountServiceClient {
+import static base.profile.Common.wrapException;
+
+public class AccountServiceBridge implements AccountServiceClient, AutoCloseable {
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_BATCH_CONCURRENCY = 4;
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    private static final long DEFAULT_RETRY_BASE_DELAY = 25;
+    private static final long DEFAULT_RETRY_MAX_DELAY = 1000;
+    private static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+    private static final double DEFAULT_RETRY_BUDGET_BURST = 10;
+    private static final int DEFAULT_HEDGE_CONCURRENCY = 16;
+    private static final long HEDGE_THREAD_KEEP_ALIVE = 60000;
+    private static final int LATENCY_TRACKER_CAPACITY = 1024;
+    private static final int LATENCY_TRACKER_MIN_SAMPLES = 100;
+    private static final double HEDGE_DELAY_PERCENTILE = 0.95;
     private final HttpClient httpClient;
-    private String host;
-    private int port;
+    private final Gson gson;
+    private LoadBalancer loadBalancer;
+    private int batchSize;
+    private int batchConcurrency;
+    private int maxRetries;
+    private long retryBaseDelay;
+    private long retryMaxDelay;
+    private long hedgeDelay;
+    private boolean hedgeDelayAdaptive;
+    private int hedgeConcurrency;
+    private ExecutorService batchExecutor;
+    private ThreadPoolExecutor requestExecutor;
+    private RetryBudget retryBudget;
+    private final LatencyTracker latencyTracker = new LatencyTracker(LATENCY_TRACKER_CAPACITY, HEDGE_DELAY_PERCENTILE);
 
     public AccountServiceBridge(HttpClient httpClient, Map<String, String> config) {
         configure(config);
@@ -20,22 +49,24 @@ public class AccountServiceBridge implements AccountServiceClient {
             throw new RuntimeException("Invalid httpClient provided to AccountServiceBridge constructor");
         }
         this.httpClient = httpClient;
+        gson = new GsonBuilder().create();
+        batchExecutor = Executors.newFixedThreadPool(batchConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "account-service-bridge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        requestExecutor = new ThreadPoolExecutor(hedgeConcurrency, hedgeConcurrency, HEDGE_THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "account-service-bridge-request");
+            thread.setDaemon(true);
+            return thread;
+        });
+        requestExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Override
     public boolean checkForAccountExistence(Authority authority, String id) throws IllegalArgumentException, AccessDeniedException {
-        Map<String, List<String>> requestHeaders = null;
-        if (authority != null) {
-            requestHeaders = new HashMap<>();
-            if (authority.getId() != null) {
-                requestHeaders.put("authority-id", List.of(authority.getId()));
-            }
-            requestHeaders.put("authority-roles", List.of(String.valueOf(authority.getRoles())));
-            requestHeaders.put("authority-auth-time", List.of(String.valueOf(authority.getAuthTime())));
-        }
         Map<String, List<String>> requestQueryParameters = Map.of("id", List.of(id));
-        HttpClient.Request request = new HttpClient.Request(host, port, "/account", HttpClient.Method.GET, requestHeaders, requestQueryParameters, null);
-        HttpClient.Response response = httpClient.sendRequest(request);
+        HttpClient.Response response = sendRequest("/account", HttpClient.Method.GET, createAuthorityHeaders(authority), requestQueryParameters);
         switch (response.getStatus()) {
             case 200: {
                 return true;
@@ -55,30 +86,330 @@ public class AccountServiceBridge implements AccountServiceClient {
         }
     }
 
+    @Override
+    public Set<String> checkForAccountsExistence(Authority authority, Collection<String> ids) throws IllegalArgumentException, AccessDeniedException {
+        if (ids == null) {
+            throw new IllegalArgumentException();
+        }
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.contains(null)) {
+            throw new IllegalArgumentException();
+        }
+        Set<String> output = new HashSet<>();
+        if (uniqueIds.isEmpty()) {
+            return output;
+        }
+        if (uniqueIds.size() <= batchSize) {
+            output.addAll(checkForAccountsExistenceInBatch(authority, uniqueIds));
+            return output;
+        }
+        List<Future<Set<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < uniqueIds.size(); i += batchSize) {
+            List<String> batch = uniqueIds.subList(i, Math.min(i + batchSize, uniqueIds.size()));
+            futures.add(batchExecutor.submit(() -> checkForAccountsExistenceInBatch(authority, batch)));
+        }
+        try {
+            for (Future<Set<String>> future : futures) {
+                output.addAll(future.get());
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            if (e.getCause() instanceof AccessDeniedException) {
+                throw (AccessDeniedException) e.getCause();
+            }
+            throw wrapException(e, "Failed to check for account existence in batch");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw wrapException(e, "Interrupted while checking for account existence in batch");
+        }
+        finally {
+            for (Future<Set<String>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public void close() {
+        batchExecutor.shutdownNow();
+        requestExecutor.shutdownNow();
+        loadBalancer.close();
+    }
+
+    private HttpClient.Response sendRequest(String path, HttpClient.Method method, Map<String, List<String>> headers, Map<String, List<String>> queryParameters) {
+        retryBudget.recordRequest();
+        boolean retryable = method == HttpClient.Method.GET;
+        int attempt = 0;
+        while (true) {
+            try {
+                HttpClient.Response response = sendHedgedRequest(path, method, headers, queryParameters, retryable);
+                if (response.getStatus() < 500 || !retryable || attempt >= maxRetries || !retryBudget.tryAcquire()) {
+                    return response;
+                }
+            }
+            catch (RuntimeException e) {
+                if (!retryable || attempt >= maxRetries || !retryBudget.tryAcquire()) {
+                    throw e;
+                }
+            }
+            attempt++;
+            long backoffCap = retryBaseDelay << Math.min(attempt - 1, 30);
+            if (backoffCap <= 0 || backoffCap > retryMaxDelay) {
+                backoffCap = retryMaxDelay;
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoffCap + 1));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw wrapException(e, "Interrupted while waiting to retry request to account service");
+            }
+        }
+    }
+
+    private HttpClient.Response sendHedgedRequest(String path, HttpClient.Method method, Map<String, List<String>> headers, Map<String, List<String>> queryParameters, boolean hedgeable) {
+        long delay = hedgeDelay;
+        if (hedgeDelayAdaptive) {
+            delay = latencyTracker.getSampleCount() >= LATENCY_TRACKER_MIN_SAMPLES ? TimeUnit.NANOSECONDS.toMillis(latencyTracker.getPercentileValue()) : 0;
+        }
+        LoadBalancer.Endpoint primaryEndpoint = loadBalancer.acquire();
+        if (!hedgeable || delay <= 0) {
+            return sendAttempt(primaryEndpoint, path, method, headers, queryParameters);
+        }
+        CompletionService<HttpClient.Response> completionService = new ExecutorCompletionService<>(requestExecutor);
+        List<Future<HttpClient.Response>> futures = new ArrayList<>(2);
+        try {
+            futures.add(completionService.submit(() -> sendAttempt(primaryEndpoint, path, method, headers, queryParameters)));
+        }
+        catch (RejectedExecutionException e) {
+            return sendAttempt(primaryEndpoint, path, method, headers, queryParameters);
+        }
+        try {
+            Future<HttpClient.Response> completed = completionService.poll(delay, TimeUnit.MILLISECONDS);
+            if (completed == null && retryBudget.tryAcquire()) {
+                try {
+                    futures.add(completionService.submit(() -> sendAttempt(loadBalancer.acquire(primaryEndpoint), path, method, headers, queryParameters)));
+                }
+                catch (RejectedExecutionException ignored) { }
+            }
+            HttpClient.Response serverErrorResponse = null;
+            RuntimeException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                if (completed == null) {
+                    completed = completionService.take();
+                }
+                try {
+                    HttpClient.Response response = completed.get();
+                    if (response.getStatus() < 500) {
+                        return response;
+                    }
+                    serverErrorResponse = response;
+                }
+                catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : wrapException(e, "Failed to send request to account service");
+                    }
+                }
+                completed = null;
+            }
+            if (serverErrorResponse != null) {
+                return serverErrorResponse;
+            }
+            throw failure;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw wrapException(e, "Interrupted while waiting for response from account service");
+        }
+        finally {
+            for (Future<HttpClient.Response> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private HttpClient.Response sendAttempt(LoadBalancer.Endpoint endpoint, String path, HttpClient.Method method, Map<String, List<String>> headers, Map<String, List<String>> queryParameters) {
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            HttpClient.Request request = new HttpClient.Request(endpoint.getHost(), endpoint.getPort(), path, method, headers, queryParameters, null);
+            HttpClient.Response response = httpClient.sendRequest(request);
+            failed = response.getStatus() >= 500;
+            return response;
+        }
+        finally {
+            long latency = System.nanoTime() - startTime;
+            loadBalancer.release(endpoint, failed, latency);
+            if (!failed) {
+                latencyTracker.record(latency);
+            }
+        }
+    }
+
+    private Set<String> checkForAccountsExistenceInBatch(Authority authority, List<String> ids) throws IllegalArgumentException, AccessDeniedException {
+        if (ids.size() == 1) {
+            return checkForAccountExistence(authority, ids.get(0)) ? Set.of(ids.get(0)) : Set.of();
+        }
+        Map<String, List<String>> requestQueryParameters = Map.of("id", ids);
+        HttpClient.Response response = sendRequest("/account", HttpClient.Method.GET, createAuthorityHeaders(authority), requestQueryParameters);
+        switch (response.getStatus()) {
+            case 200: {
+                break;
+            }
+            case 400: {
+                throw new IllegalArgumentException();
+            }
+            case 401: {
+                throw new AccessDeniedException();
+            }
+            default: {
+                throw new RuntimeException("Unexpected status code received from account service");
+            }
+        }
+        if (response.getBody() == null) {
+            throw new RuntimeException("Incomplete response received from account service");
+        }
+        Account[] accounts;
+        try {
+            accounts = gson.fromJson(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8), Account[].class);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to parse response from account service");
+        }
+        if (accounts == null || accounts.length != ids.size()) {
+            throw new RuntimeException("Incomplete response received from account service");
+        }
+        Set<String> output = new HashSet<>();
+        for (int i = 0; i < accounts.length; i++) {
+            if (accounts[i] == null) {
+                continue;
+            }
+            if (!ids.get(i).equalsIgnoreCase(accounts[i].id)) {
+                throw new RuntimeException("Inconsistent response received from account service");
+            }
+            output.add(ids.get(i));
+        }
+        return output;
+    }
+
+    private static Map<String, List<String>> createAuthorityHeaders(Authority authority) {
+        if (authority == null) {
+            return null;
+        }
+        Map<String, List<String>> headers = new HashMap<>();
+        if (authority.getId() != null) {
+            headers.put("authority-id", List.of(authority.getId()));
+        }
+        headers.put("authority-roles", List.of(String.valueOf(authority.getRoles())));
+        headers.put("authority-auth-time", List.of(String.valueOf(authority.getAuthTime())));
+        return headers;
+    }
+
     private void configure(Map<String, String> config) {
         if (config == null) {
             throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
         }
-        host = config.get("host");
-        if (host == null || host.length() == 0) {
-            host = "localhost";
-        }
-        if (config.get("port") == null || config.get("port").length() == 0) {
-            port = 80;
-        }
-        else {
+        Map<String, String> loadBalancerConfig = new HashMap<>(config);
+        if (config.get("endpoints") == null || config.get("endpoints").length() == 0) {
+            String host = config.get("host");
+            if (host == null || host.length() == 0) {
+                host = "localhost";
+            }
+            int port;
+            if (config.get("port") == null || config.get("port").length() == 0) {
+                port = 80;
+            }
+            else {
+                try {
+                    port = Integer.parseInt(config.get("port"));
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+                }
+            }
             try {
-                port = Integer.parseInt(config.get("port"));
+                new URL("http", host, port, "/");
             }
             catch (Exception e) {
                 throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
             }
+            loadBalancerConfig.put("endpoints", host + ":" + port);
+        }
+        batchSize = parsePositiveInt(config.get("batchSize"), DEFAULT_BATCH_SIZE);
+        batchConcurrency = parsePositiveInt(config.get("batchConcurrency"), DEFAULT_BATCH_CONCURRENCY);
+        maxRetries = (int) parseNonNegativeLong(config.get("maxRetries"), DEFAULT_MAX_RETRIES);
+        retryBaseDelay = parseNonNegativeLong(config.get("retryBaseDelay"), DEFAULT_RETRY_BASE_DELAY);
+        retryMaxDelay = parseNonNegativeLong(config.get("retryMaxDelay"), DEFAULT_RETRY_MAX_DELAY);
+        double retryBudgetRatio = parseNonNegativeDouble(config.get("retryBudgetRatio"), DEFAULT_RETRY_BUDGET_RATIO);
+        double retryBudgetBurst = parseNonNegativeDouble(config.get("retryBudgetBurst"), DEFAULT_RETRY_BUDGET_BURST);
+        retryBudget = new RetryBudget(retryBudgetRatio, retryBudgetBurst);
+        if ("p95".equals(config.get("hedgeDelay"))) {
+            hedgeDelayAdaptive = true;
         }
+        else {
+            hedgeDelay = parseNonNegativeLong(config.get("hedgeDelay"), 0);
+        }
+        hedgeConcurrency = parsePositiveInt(config.get("hedgeConcurrency"), DEFAULT_HEDGE_CONCURRENCY);
+        loadBalancer = new LoadBalancer(loadBalancerConfig);
+    }
+
+    private static int parsePositiveInt(String value, int defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        int parsedValue;
+        try {
+            parsedValue = Integer.parseInt(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+        }
+        if (parsedValue <= 0) {
+            throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+        }
+        return parsedValue;
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
         try {
-            new URL("http", host, port, "/");
+            parsedValue = Long.parseLong(value);
         }
         catch (Exception e) {
             throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
         }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+        }
+        return parsedValue;
+    }
+
+    private static double parseNonNegativeDouble(String value, double defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        double parsedValue;
+        try {
+            parsedValue = Double.parseDouble(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+        }
+        if (!(parsedValue >= 0) || Double.isInfinite(parsedValue)) {
+            throw new RuntimeException("Invalid config provided to AccountServiceBridge constructor");
+        }
+        return parsedValue;
+    }
+
+    private static class Account {
+        private String id;
     }
 }
@@ -4,6 +4,10 @@ import base.profile.service.model.AccessDeniedException;
 import base.profile.service.model.Authority;
 import base.profile.service.model.IllegalArgumentException;
 
+import java.util.Collection;
+import java.util.Set;
+
 public interface AccountServiceClient {
     boolean checkForAccountExistence(Authority authority, String id) throws IllegalArgumentException, AccessDeniedException;
+    Set<String> checkForAccountsExistence(Authority authority, Collection<String> ids) throws IllegalArgumentException, AccessDeniedException;
 }
@@ -0,0 +1,123 @@
+package base.profile.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class BackgroundThrottle implements AutoCloseable {
+    private static final long DEFAULT_LATENCY_TARGET = 200;
+    private static final long DEFAULT_DELAY_STEP = 10;
+    private static final long DEFAULT_MAX_DELAY = 2000;
+    private static final long DEFAULT_ADJUSTMENT_INTERVAL = 1000;
+    private static final int SAMPLE_CAPACITY = 1024;
+    private static final int MIN_SAMPLES = 10;
+    private static final double LATENCY_PERCENTILE = 0.95;
+    private final long[] samples = new long[SAMPLE_CAPACITY];
+    private final ScheduledExecutorService executor;
+    private long latencyTargetNanos;
+    private long delayStep;
+    private long maxDelay;
+    private long adjustmentInterval;
+    private int sampleCount;
+    private long observedCount;
+    private volatile long delay;
+
+    public BackgroundThrottle(Map<String, String> config) {
+        configure(config);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "background-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::adjust, adjustmentInterval, adjustmentInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void recordForegroundLatency(long latencyNanos) {
+        observedCount++;
+        if (sampleCount < samples.length) {
+            samples[sampleCount++] = latencyNanos;
+            return;
+        }
+        long index = ThreadLocalRandom.current().nextLong(observedCount);
+        if (index < samples.length) {
+            samples[(int) index] = latencyNanos;
+        }
+    }
+
+    public void acquire() {
+        long currentDelay = delay;
+        if (currentDelay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(currentDelay);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void adjust() {
+        long[] intervalSamples;
+        synchronized (this) {
+            intervalSamples = Arrays.copyOf(samples, sampleCount);
+            sampleCount = 0;
+            observedCount = 0;
+        }
+        boolean overloaded = false;
+        if (intervalSamples.length >= MIN_SAMPLES) {
+            Arrays.sort(intervalSamples);
+            int index = (int) Math.min(intervalSamples.length - 1, Math.ceil(LATENCY_PERCENTILE * intervalSamples.length) - 1);
+            overloaded = intervalSamples[index] > latencyTargetNanos;
+        }
+        long currentDelay = delay;
+        if (overloaded) {
+            delay = Math.min(maxDelay, Math.max(delayStep, currentDelay * 2));
+        }
+        else {
+            delay = Math.max(0, currentDelay - delayStep);
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to BackgroundThrottle constructor");
+        }
+        latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(parseNonNegativeLong(config.get("latencyTarget"), DEFAULT_LATENCY_TARGET));
+        delayStep = parseNonNegativeLong(config.get("delayStep"), DEFAULT_DELAY_STEP);
+        maxDelay = parseNonNegativeLong(config.get("maxDelay"), DEFAULT_MAX_DELAY);
+        adjustmentInterval = parseNonNegativeLong(config.get("adjustmentInterval"), DEFAULT_ADJUSTMENT_INTERVAL);
+        if (latencyTargetNanos == 0 || delayStep == 0 || adjustmentInterval == 0) {
+            throw new RuntimeException("Invalid config provided to BackgroundThrottle constructor");
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to BackgroundThrottle constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to BackgroundThrottle constructor");
+        }
+        return parsedValue;
+    }
+}
@@ -0,0 +1,179 @@
+package base.profile.service;
+
+import base.profile.repository.BlobRepository;
+import base.profile.repository.ProfileRepository;
+import base.profile.repository.model.Blob;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static base.profile.Common.wrapException;
+
+public class BlobCollector implements AutoCloseable {
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final long DEFAULT_GRACE_PERIOD = 3600000;
+    private static final long DEFAULT_INITIAL_DELAY = 60000;
+    private static final long DEFAULT_INTERVAL = 3600000;
+    private static final int PAGE_SIZE_MAX_VALUE = 1000;
+    private final ProfileRepository profileRepository;
+    private final BlobRepository blobRepository;
+    private final BackgroundThrottle backgroundThrottle;
+    private final AtomicLong passCount = new AtomicLong();
+    private final AtomicLong scannedCount = new AtomicLong();
+    private final AtomicLong deletedCount = new AtomicLong();
+    private int pageSize;
+    private long gracePeriod;
+    private long initialDelay;
+    private long interval;
+    private ScheduledExecutorService executor;
+
+    public BlobCollector(ProfileRepository profileRepository, BlobRepository blobRepository, Map<String, String> config) {
+        this(profileRepository, blobRepository, null, config);
+    }
+
+    public BlobCollector(ProfileRepository profileRepository, BlobRepository blobRepository, BackgroundThrottle backgroundThrottle, Map<String, String> config) {
+        configure(config);
+        if (profileRepository == null) {
+            throw new RuntimeException("Invalid profileRepository provided to BlobCollector constructor");
+        }
+        if (blobRepository == null) {
+            throw new RuntimeException("Invalid blobRepository provided to BlobCollector constructor");
+        }
+        this.profileRepository = profileRepository;
+        this.blobRepository = blobRepository;
+        this.backgroundThrottle = backgroundThrottle;
+    }
+
+    public synchronized void start() {
+        if (executor != null || interval <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "blob-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                collect();
+            }
+            catch (Exception e) {
+                System.out.println("Blob collection pass failed:\n" + e);
+            }
+        }, initialDelay, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void collect() {
+        long modifiedBefore = System.currentTimeMillis() - gracePeriod;
+        String lastId = null;
+        long passScannedCount = 0;
+        long passDeletedCount = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Blob[] page;
+            try {
+                page = blobRepository.readAfterId(lastId, pageSize);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to read from blob store");
+            }
+            if (page == null || page.length == 0) {
+                break;
+            }
+            List<String> candidateIds = new ArrayList<>(page.length);
+            for (Blob blob : page) {
+                if (blob.getModifiedTime() < modifiedBefore) {
+                    candidateIds.add(blob.getId());
+                }
+            }
+            if (!candidateIds.isEmpty()) {
+                Set<String> referencedIds;
+                try {
+                    referencedIds = new HashSet<>(Arrays.asList(profileRepository.readReferencedBlobIds(candidateIds.toArray(new String[0]))));
+                }
+                catch (Exception e) {
+                    throw wrapException(e, "Failed to read from profile store");
+                }
+                for (String candidateId : candidateIds) {
+                    if (referencedIds.contains(candidateId)) {
+                        continue;
+                    }
+                    try {
+                        if (blobRepository.deleteById(candidateId, modifiedBefore)) {
+                            passDeletedCount++;
+                            deletedCount.incrementAndGet();
+                        }
+                    }
+                    catch (Exception e) {
+                        throw wrapException(e, "Failed to write to blob store");
+                    }
+                }
+            }
+            lastId = page[page.length - 1].getId();
+            passScannedCount += page.length;
+            scannedCount.addAndGet(page.length);
+            if (page.length < pageSize) {
+                break;
+            }
+            if (backgroundThrottle != null) {
+                backgroundThrottle.acquire();
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        passCount.incrementAndGet();
+        System.out.println(String.format("Blob collection pass completed: %d scanned, %d deleted", passScannedCount, passDeletedCount));
+    }
+
+    public long getPassCount() {
+        return passCount.get();
+    }
+
+    public long getScannedCount() {
+        return scannedCount.get();
+    }
+
+    public long getDeletedCount() {
+        return deletedCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to BlobCollector constructor");
+        }
+        pageSize = (int) parseNonNegativeLong(config.get("pageSize"), DEFAULT_PAGE_SIZE);
+        if (pageSize == 0 || pageSize > PAGE_SIZE_MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to BlobCollector constructor");
+        }
+        gracePeriod = parseNonNegativeLong(config.get("gracePeriod"), DEFAULT_GRACE_PERIOD);
+        initialDelay = parseNonNegativeLong(config.get("initialDelay"), DEFAULT_INITIAL_DELAY);
+        interval = parseNonNegativeLong(config.get("interval"), DEFAULT_INTERVAL);
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to BlobCollector constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to BlobCollector constructor");
+        }
+        return parsedValue;
+    }
+}
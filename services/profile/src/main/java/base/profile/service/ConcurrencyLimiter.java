@@ -0,0 +1,136 @@
+package base.profile.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrencyLimiter {
+    private static final long DEFAULT_INITIAL_LIMIT = 20;
+    private static final long DEFAULT_MIN_LIMIT = 4;
+    private static final long DEFAULT_MAX_LIMIT = 200;
+    private static final double DEFAULT_SYSTEM_RESERVE = 0.1;
+    private static final long DEFAULT_MIN_RTT_WINDOW = 1000;
+    private static final double DROP_DECREASE_FACTOR = 0.9;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private long minLimit;
+    private long maxLimit;
+    private double systemReserve;
+    private long minRttWindow;
+    private volatile double limit;
+    private long minRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private long windowSampleCount;
+
+    public ConcurrencyLimiter(Map<String, String> config) {
+        configure(config);
+    }
+
+    public boolean tryAcquire(boolean system) {
+        int maxInflight = (int) (system ? limit : Math.max(1, limit * (1 - systemReserve)));
+        while (true) {
+            int currentInflight = inflight.get();
+            if (currentInflight >= maxInflight) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (inflight.compareAndSet(currentInflight, currentInflight + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        int currentInflight = inflight.getAndDecrement();
+        update(Math.max(1, rttNanos), currentInflight, dropped);
+    }
+
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private synchronized void update(long rtt, int currentInflight, boolean dropped) {
+        windowMinRtt = Math.min(windowMinRtt, rtt);
+        if (++windowSampleCount >= minRttWindow) {
+            minRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSampleCount = 0;
+        }
+        minRtt = Math.min(minRtt, rtt);
+        double currentLimit = limit;
+        double newLimit;
+        if (dropped) {
+            newLimit = currentLimit * DROP_DECREASE_FACTOR;
+        }
+        else if (currentInflight * 2 < currentLimit) {
+            return;
+        }
+        else {
+            double logLimit = Math.log10(Math.max(10, currentLimit));
+            double queueSize = Math.ceil(currentLimit * (1 - (double) minRtt / rtt));
+            if (queueSize <= logLimit) {
+                newLimit = currentLimit + 6 * logLimit;
+            }
+            else if (queueSize < 3 * logLimit) {
+                newLimit = currentLimit + logLimit;
+            }
+            else if (queueSize > 6 * logLimit) {
+                newLimit = currentLimit - logLimit;
+            }
+            else {
+                return;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to ConcurrencyLimiter constructor");
+        }
+        long initialLimit = parseNonNegativeLong(config.get("initialLimit"), DEFAULT_INITIAL_LIMIT);
+        minLimit = parseNonNegativeLong(config.get("minLimit"), DEFAULT_MIN_LIMIT);
+        maxLimit = parseNonNegativeLong(config.get("maxLimit"), DEFAULT_MAX_LIMIT);
+        minRttWindow = parseNonNegativeLong(config.get("minRttWindow"), DEFAULT_MIN_RTT_WINDOW);
+        String systemReserveString = config.get("systemReserve");
+        try {
+            systemReserve = systemReserveString == null || systemReserveString.length() == 0 ? DEFAULT_SYSTEM_RESERVE : Double.parseDouble(systemReserveString);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to ConcurrencyLimiter constructor");
+        }
+        if (minLimit == 0 || maxLimit < minLimit || maxLimit > Integer.MAX_VALUE || initialLimit < minLimit || initialLimit > maxLimit || minRttWindow == 0 || !(systemReserve >= 0 && systemReserve < 1)) {
+            throw new RuntimeException("Invalid config provided to ConcurrencyLimiter constructor");
+        }
+        limit = initialLimit;
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to ConcurrencyLimiter constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to ConcurrencyLimiter constructor");
+        }
+        return parsedValue;
+    }
+}
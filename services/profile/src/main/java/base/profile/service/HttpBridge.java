@@ -2,6 +2,8 @@ package base.profile.service;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -13,6 +15,18 @@ import static base.profile.Common.wrapException;
 
 public class HttpBridge implements HttpClient {
     private static final String URL_FORMAT = "http://%s:%d%s%s";
+    private static final long DEFAULT_CONNECT_TIMEOUT = 2000;
+    private static final long DEFAULT_READ_TIMEOUT = 10000;
+    private int connectTimeout;
+    private int readTimeout;
+
+    public HttpBridge() {
+        this(Map.of());
+    }
+
+    public HttpBridge(Map<String, String> config) {
+        configure(config);
+    }
 
     @Override
     public Response sendRequest(Request request) {
@@ -83,6 +97,8 @@ public class HttpBridge implements HttpClient {
             catch (Exception e) {
                 throw wrapException(e, String.format("Failed to set request method: %s", request.getMethod().toString()));
             }
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
             if (request.getHeaders() != null) {
                 for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
                     if (header.getKey() != null && header.getKey().length() > 0) {
@@ -152,9 +168,21 @@ public class HttpBridge implements HttpClient {
                     throw wrapException(e, "Failed to create response body stream");
                 }
             }
+            long maxResponseBodyLength = request.getMaxResponseBodyLength();
+            if (maxResponseBodyLength > 0 && connection.getContentLengthLong() > maxResponseBodyLength) {
+                throw new RuntimeException(String.format("Response body exceeds maximum length: %d", maxResponseBodyLength));
+            }
+            if (responseBodySourceStream == null || connection.getContentLengthLong() == 0) {
+                return new Response(status, responseHeaders, null);
+            }
+            if (request.isStreamResponseBody()) {
+                InputStream responseBodyStream = new ResponseBodyStream(responseBodySourceStream, maxResponseBodyLength, connection);
+                connection = null;
+                return new Response(status, responseHeaders, responseBodyStream);
+            }
             ByteArrayOutputStream responseBodyDestinationStream = new ByteArrayOutputStream();
             try {
-                responseBodySourceStream.transferTo(responseBodyDestinationStream);
+                new ResponseBodyStream(responseBodySourceStream, maxResponseBodyLength, null).transferTo(responseBodyDestinationStream);
             }
             catch (Exception e) {
                 throw wrapException(e, "Failed to read from response body stream");
@@ -171,4 +199,97 @@ public class HttpBridge implements HttpClient {
             }
         }
     }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to HttpBridge constructor");
+        }
+        connectTimeout = (int) parsePositiveLong(config.get("connectTimeout"), DEFAULT_CONNECT_TIMEOUT);
+        readTimeout = (int) parsePositiveLong(config.get("readTimeout"), DEFAULT_READ_TIMEOUT);
+    }
+
+    private static long parsePositiveLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to HttpBridge constructor");
+        }
+        if (parsedValue <= 0 || parsedValue > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to HttpBridge constructor");
+        }
+        return parsedValue;
+    }
+
+    private static class ResponseBodyStream extends FilterInputStream {
+        private final long maxLength;
+        private final HttpURLConnection connection;
+        private long readLength;
+        private boolean closed;
+
+        public ResponseBodyStream(InputStream source, long maxLength, HttpURLConnection connection) {
+            super(source);
+            this.maxLength = maxLength;
+            this.connection = connection;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                countReadLength(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                countReadLength(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            if (count > 0) {
+                countReadLength(count);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            }
+            finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+
+        private void countReadLength(long count) throws IOException {
+            readLength += count;
+            if (maxLength > 0 && readLength > maxLength) {
+                throw new IOException(String.format("Response body exceeds maximum length: %d", maxLength));
+            }
+        }
+    }
 }
@@ -15,6 +15,8 @@ public interface HttpClient {
         private Map<String, List<String>> headers;
         private Map<String, List<String>> queryParameters;
         private InputStream body;
+        private boolean streamResponseBody;
+        private long maxResponseBodyLength;
 
         public Request(String host, int port, String path, Method method, Map<String, List<String>> headers, Map<String, List<String>> queryParameters, InputStream body) {
             this.host = host;
@@ -81,6 +83,22 @@ public interface HttpClient {
         public void setBody(InputStream body) {
             this.body = body;
         }
+
+        public boolean isStreamResponseBody() {
+            return streamResponseBody;
+        }
+
+        public void setStreamResponseBody(boolean streamResponseBody) {
+            this.streamResponseBody = streamResponseBody;
+        }
+
+        public long getMaxResponseBodyLength() {
+            return maxResponseBodyLength;
+        }
+
+        public void setMaxResponseBodyLength(long maxResponseBodyLength) {
+            this.maxResponseBodyLength = maxResponseBodyLength;
+        }
     }
 
     class Response {
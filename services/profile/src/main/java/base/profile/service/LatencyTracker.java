@@ -0,0 +1,44 @@
+package base.profile.service;
+
+import java.util.Arrays;
+
+public class LatencyTracker {
+    private static final int RECALCULATION_INTERVAL = 64;
+    private final long[] samples;
+    private final double percentile;
+    private int sampleCount;
+    private int nextIndex;
+    private int recordsSinceRecalculation;
+    private long percentileValue = -1;
+
+    public LatencyTracker(int capacity, double percentile) {
+        if (capacity <= 0 || percentile <= 0 || percentile > 1) {
+            throw new RuntimeException("Invalid arguments provided to LatencyTracker constructor");
+        }
+        samples = new long[capacity];
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[nextIndex] = latencyNanos;
+        nextIndex = (nextIndex + 1) % samples.length;
+        if (sampleCount < samples.length) {
+            sampleCount++;
+        }
+        recordsSinceRecalculation++;
+        if (percentileValue < 0 || recordsSinceRecalculation >= RECALCULATION_INTERVAL) {
+            long[] sortedSamples = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sortedSamples);
+            percentileValue = sortedSamples[(int) Math.min(sampleCount - 1, Math.ceil(percentile * sampleCount) - 1)];
+            recordsSinceRecalculation = 0;
+        }
+    }
+
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    public synchronized long getPercentileValue() {
+        return percentileValue;
+    }
+}
@@ -0,0 +1,279 @@
+package base.profile.service;
+
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadBalancer implements AutoCloseable {
+    private static final int DEFAULT_EJECTION_CONSECUTIVE_FAILURES = 5;
+    private static final long DEFAULT_EJECTION_DURATION = 30000;
+    private static final int EJECTION_DURATION_MAX_MULTIPLIER = 10;
+    private static final int LATENCY_EJECTION_MIN_SAMPLES = 20;
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.1;
+    private final List<Target> targets = new ArrayList<>();
+    private int ejectionConsecutiveFailures;
+    private long ejectionDurationNanos;
+    private long ejectionLatencyThresholdNanos;
+    private long dnsRefreshInterval;
+    private volatile Endpoint[] endpoints;
+    private ScheduledExecutorService dnsRefreshExecutor;
+
+    public LoadBalancer(Map<String, String> config) {
+        configure(config);
+        List<Endpoint> initialEndpoints = new ArrayList<>();
+        for (Target target : targets) {
+            Endpoint endpoint = new Endpoint(target.host, target.port);
+            endpoint.target = target;
+            initialEndpoints.add(endpoint);
+        }
+        endpoints = initialEndpoints.toArray(new Endpoint[0]);
+        if (dnsRefreshInterval > 0) {
+            refreshEndpoints();
+            dnsRefreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "load-balancer-dns-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dnsRefreshExecutor.scheduleWithFixedDelay(this::refreshEndpoints, dnsRefreshInterval, dnsRefreshInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Endpoint acquire() {
+        return acquire(null);
+    }
+
+    public Endpoint acquire(Endpoint excluded) {
+        Endpoint[] snapshot = endpoints;
+        long now = System.nanoTime();
+        List<Endpoint> candidates = new ArrayList<>(snapshot.length);
+        for (Endpoint endpoint : snapshot) {
+            if (endpoint != excluded && !endpoint.isEjected(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (Endpoint endpoint : snapshot) {
+                if (endpoint != excluded) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(Arrays.asList(snapshot));
+        }
+        Endpoint selection;
+        if (candidates.size() == 1) {
+            selection = candidates.get(0);
+        }
+        else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int firstIndex = random.nextInt(candidates.size());
+            int secondIndex = random.nextInt(candidates.size() - 1);
+            if (secondIndex >= firstIndex) {
+                secondIndex++;
+            }
+            Endpoint first = candidates.get(firstIndex);
+            Endpoint second = candidates.get(secondIndex);
+            selection = first.compareLoad(second) <= 0 ? first : second;
+        }
+        selection.outstandingRequests.incrementAndGet();
+        return selection;
+    }
+
+    public void release(Endpoint endpoint, boolean failed, long latencyNanos) {
+        endpoint.outstandingRequests.decrementAndGet();
+        endpoint.recordResult(failed, latencyNanos, System.nanoTime());
+    }
+
+    public int getEndpointCount() {
+        return endpoints.length;
+    }
+
+    @Override
+    public void close() {
+        if (dnsRefreshExecutor != null) {
+            dnsRefreshExecutor.shutdownNow();
+        }
+    }
+
+    private void refreshEndpoints() {
+        Endpoint[] snapshot = endpoints;
+        Map<String, Endpoint> existingEndpoints = new HashMap<>();
+        for (Endpoint endpoint : snapshot) {
+            existingEndpoints.put(endpoint.getKey(), endpoint);
+        }
+        Map<String, Endpoint> refreshedEndpoints = new LinkedHashMap<>();
+        for (Target target : targets) {
+            List<String> addresses = new ArrayList<>();
+            try {
+                for (InetAddress address : InetAddress.getAllByName(target.host)) {
+                    addresses.add(address.getHostAddress());
+                }
+            }
+            catch (Exception e) {
+                for (Endpoint endpoint : snapshot) {
+                    if (endpoint.target == target) {
+                        refreshedEndpoints.put(endpoint.getKey(), endpoint);
+                    }
+                }
+                continue;
+            }
+            for (String address : addresses) {
+                String key = address + ":" + target.port;
+                Endpoint endpoint = existingEndpoints.get(key);
+                if (endpoint == null) {
+                    endpoint = new Endpoint(address, target.port);
+                }
+                endpoint.target = target;
+                refreshedEndpoints.put(key, endpoint);
+            }
+        }
+        if (!refreshedEndpoints.isEmpty()) {
+            endpoints = refreshedEndpoints.values().toArray(new Endpoint[0]);
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+        }
+        String endpointsString = config.get("endpoints");
+        if (endpointsString == null || endpointsString.length() == 0) {
+            throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+        }
+        for (String endpointString : endpointsString.split(",")) {
+            endpointString = endpointString.trim();
+            int separatorIndex = endpointString.lastIndexOf(':');
+            if (separatorIndex <= 0 || separatorIndex == endpointString.length() - 1) {
+                throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+            }
+            int port;
+            try {
+                port = Integer.parseInt(endpointString.substring(separatorIndex + 1));
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+            }
+            if (port <= 0 || port > 65535) {
+                throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+            }
+            targets.add(new Target(endpointString.substring(0, separatorIndex), port));
+        }
+        ejectionConsecutiveFailures = (int) parseNonNegativeLong(config.get("ejectionConsecutiveFailures"), DEFAULT_EJECTION_CONSECUTIVE_FAILURES);
+        ejectionDurationNanos = TimeUnit.MILLISECONDS.toNanos(parseNonNegativeLong(config.get("ejectionDuration"), DEFAULT_EJECTION_DURATION));
+        ejectionLatencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(parseNonNegativeLong(config.get("ejectionLatencyThreshold"), 0));
+        dnsRefreshInterval = parseNonNegativeLong(config.get("dnsRefreshInterval"), 0);
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to LoadBalancer constructor");
+        }
+        return parsedValue;
+    }
+
+    public class Endpoint {
+        private final String host;
+        private final int port;
+        private final AtomicInteger outstandingRequests = new AtomicInteger();
+        private volatile Target target;
+        private int consecutiveFailures;
+        private int ejectionCount;
+        private long latencySampleCount;
+        private double smoothedLatencyNanos;
+        private volatile long ejectedUntilNanos;
+        private volatile boolean ejected;
+
+        private Endpoint(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        private String getKey() {
+            return host + ":" + port;
+        }
+
+        private boolean isEjected(long now) {
+            return ejected && now - ejectedUntilNanos < 0;
+        }
+
+        private synchronized double getSmoothedLatencyNanos() {
+            return smoothedLatencyNanos;
+        }
+
+        private int compareLoad(Endpoint other) {
+            int outstandingComparison = Integer.compare(outstandingRequests.get(), other.outstandingRequests.get());
+            if (outstandingComparison != 0) {
+                return outstandingComparison;
+            }
+            return Double.compare(getSmoothedLatencyNanos(), other.getSmoothedLatencyNanos());
+        }
+
+        private synchronized void recordResult(boolean failed, long latencyNanos, long now) {
+            if (ejected && now - ejectedUntilNanos >= 0) {
+                ejected = false;
+                latencySampleCount = 0;
+                smoothedLatencyNanos = 0;
+            }
+            if (latencySampleCount == 0) {
+                smoothedLatencyNanos = latencyNanos;
+            }
+            else {
+                smoothedLatencyNanos += LATENCY_SMOOTHING_FACTOR * (latencyNanos - smoothedLatencyNanos);
+            }
+            latencySampleCount++;
+            if (failed) {
+                consecutiveFailures++;
+            }
+            else {
+                consecutiveFailures = 0;
+                if (!ejected) {
+                    ejectionCount = 0;
+                }
+            }
+            if (ejected) {
+                return;
+            }
+            boolean failureOutlier = ejectionConsecutiveFailures > 0 && consecutiveFailures >= ejectionConsecutiveFailures;
+            boolean latencyOutlier = ejectionLatencyThresholdNanos > 0 && latencySampleCount >= LATENCY_EJECTION_MIN_SAMPLES && smoothedLatencyNanos > ejectionLatencyThresholdNanos;
+            if (failureOutlier || latencyOutlier) {
+                ejectionCount = Math.min(ejectionCount + 1, EJECTION_DURATION_MAX_MULTIPLIER);
+                ejectedUntilNanos = now + ejectionDurationNanos * ejectionCount;
+                ejected = true;
+                consecutiveFailures = 0;
+            }
+        }
+    }
+
+    private static class Target {
+        private final String host;
+        private final int port;
+
+        public Target(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+    }
+}
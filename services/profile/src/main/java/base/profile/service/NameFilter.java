@@ -0,0 +1,222 @@
+package base.profile.service;
+
+import base.profile.repository.ProfileRepository;
+import base.profile.repository.model.Profile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class NameFilter implements AutoCloseable {
+    private static final long DEFAULT_EXPECTED_INSERTIONS = 1000000;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final long DEFAULT_MEMORY_BUDGET = 4194304;
+    private static final long DEFAULT_REBUILD_INTERVAL = 3600000;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final double CAPACITY_HEADROOM = 1.5;
+    private final ProfileRepository profileRepository;
+    private final ScheduledExecutorService executor;
+    private long expectedInsertions;
+    private double falsePositiveRate;
+    private long memoryBudget;
+    private long rebuildInterval;
+    private volatile Bits bits;
+    private volatile Bits pendingBits;
+    private long resetCount;
+    private boolean resetRebuildPending;
+
+    public NameFilter(ProfileRepository profileRepository, Map<String, String> config) {
+        configure(config);
+        if (profileRepository == null) {
+            throw new RuntimeException("Invalid profileRepository provided to NameFilter constructor");
+        }
+        this.profileRepository = profileRepository;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "name-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void reset() {
+        bits = null;
+        resetCount++;
+        if (resetRebuildPending) {
+            return;
+        }
+        try {
+            executor.execute(this::rebuildQuietly);
+            resetRebuildPending = true;
+        }
+        catch (RejectedExecutionException ignored) { }
+    }
+
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    public boolean mightContain(String name) {
+        Bits currentBits = bits;
+        return currentBits == null || currentBits.mightContain(normalize(name));
+    }
+
+    public void add(String name) {
+        String normalizedName = normalize(name);
+        synchronized (this) {
+            if (bits != null) {
+                bits.add(normalizedName);
+            }
+            if (pendingBits != null) {
+                pendingBits.add(normalizedName);
+            }
+        }
+    }
+
+    public long getBitCount() {
+        Bits currentBits = bits;
+        return currentBits == null ? 0 : currentBits.bitCount;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        }
+        catch (Exception e) {
+            System.out.println("Failed to rebuild name filter:\n" + e);
+        }
+    }
+
+    private void rebuild() throws Exception {
+        Bits currentBits = bits;
+        long expectedCount = Math.max(expectedInsertions, currentBits == null ? 0 : (long) (currentBits.insertionCount * CAPACITY_HEADROOM));
+        Bits newBits = new Bits(expectedCount, falsePositiveRate, memoryBudget * 8);
+        long startResetCount;
+        synchronized (this) {
+            pendingBits = newBits;
+            startResetCount = resetCount;
+            resetRebuildPending = false;
+        }
+        try {
+            String lastAccountId = null;
+            while (!Thread.currentThread().isInterrupted()) {
+                Profile[] page = profileRepository.readAfterAccountId(lastAccountId, REBUILD_PAGE_SIZE);
+                for (Profile profile : page) {
+                    newBits.add(normalize(profile.getName()));
+                }
+                if (page.length < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+                lastAccountId = page[page.length - 1].getAccountId();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            synchronized (this) {
+                if (resetCount != startResetCount) {
+                    return;
+                }
+                bits = newBits;
+            }
+            System.out.println(String.format("Name filter rebuilt: %d names, %d bits, %d hash functions", newBits.insertionCount, newBits.bitCount, newBits.hashCount));
+        }
+        finally {
+            synchronized (this) {
+                pendingBits = null;
+            }
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to NameFilter constructor");
+        }
+        try {
+            String expectedInsertionsString = config.get("expectedInsertions");
+            String falsePositiveRateString = config.get("falsePositiveRate");
+            String memoryBudgetString = config.get("memoryBudget");
+            String rebuildIntervalString = config.get("rebuildInterval");
+            expectedInsertions = expectedInsertionsString == null || expectedInsertionsString.length() == 0 ? DEFAULT_EXPECTED_INSERTIONS : Long.parseLong(expectedInsertionsString);
+            falsePositiveRate = falsePositiveRateString == null || falsePositiveRateString.length() == 0 ? DEFAULT_FALSE_POSITIVE_RATE : Double.parseDouble(falsePositiveRateString);
+            memoryBudget = memoryBudgetString == null || memoryBudgetString.length() == 0 ? DEFAULT_MEMORY_BUDGET : Long.parseLong(memoryBudgetString);
+            rebuildInterval = rebuildIntervalString == null || rebuildIntervalString.length() == 0 ? DEFAULT_REBUILD_INTERVAL : Long.parseLong(rebuildIntervalString);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to NameFilter constructor");
+        }
+        if (expectedInsertions <= 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1) || memoryBudget <= 0 || memoryBudget > Integer.MAX_VALUE || rebuildInterval <= 0) {
+            throw new RuntimeException("Invalid config provided to NameFilter constructor");
+        }
+    }
+
+    private static class Bits {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private volatile long insertionCount;
+
+        public Bits(long expectedInsertions, double falsePositiveRate, long maxBitCount) {
+            long optimalBitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            long wordCount = Math.max(1, (Math.min(optimalBitCount, maxBitCount) + 63) / 64);
+            words = new AtomicLongArray((int) wordCount);
+            bitCount = wordCount * 64;
+            hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / expectedInsertions * Math.log(2))));
+        }
+
+        public void add(String value) {
+            long hash = hash(value);
+            int firstHash = (int) hash;
+            int secondHash = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(firstHash + (long) i * secondHash, bitCount);
+                long mask = 1L << (index & 63);
+                words.getAndAccumulate((int) (index >>> 6), mask, (word, bit) -> word | bit);
+            }
+            insertionCount++;
+        }
+
+        public boolean mightContain(String value) {
+            long hash = hash(value);
+            int firstHash = (int) hash;
+            int secondHash = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(firstHash + (long) i * secondHash, bitCount);
+                if ((words.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
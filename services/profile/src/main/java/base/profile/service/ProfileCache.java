@@ -0,0 +1,335 @@
+package base.profile.service;
+
+import base.profile.AccountId;
+import base.profile.service.model.Profile;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class ProfileCache {
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final long DEFAULT_TTL = 60000;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_COUNTER_MAX_VALUE = 15;
+    private static final int SKETCH_SAMPLE_SIZE_MULTIPLIER = 10;
+    private static final int[] SKETCH_SEEDS = { 0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+    private static final String ACCOUNT_ID_KEY_PREFIX = "a:";
+    private static final String NAME_KEY_PREFIX = "n:";
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+    private long ttl;
+    private byte[][] sketch;
+    private int sketchMask;
+    private int sketchSampleSize;
+    private int sketchIncrementCount;
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+    private long loadCount;
+    private long loadLatencyNanos;
+    private boolean suspended;
+    private InvalidationListener invalidationListener;
+    private NameFilter nameFilter;
+
+    public ProfileCache(Map<String, String> config) {
+        configure(config);
+        int sketchWidth = Integer.highestOneBit(Math.max(16, capacity * 2 - 1)) << 1;
+        sketch = new byte[SKETCH_DEPTH][sketchWidth];
+        sketchMask = sketchWidth - 1;
+        sketchSampleSize = capacity * SKETCH_SAMPLE_SIZE_MULTIPLIER;
+    }
+
+    public Profile[] getByAccountId(String accountId) {
+        return get(ACCOUNT_ID_KEY_PREFIX + AccountId.normalize(accountId));
+    }
+
+    public Profile[] getByName(String name) {
+        return get(NAME_KEY_PREFIX + NameFilter.normalize(name));
+    }
+
+    public void putByAccountId(String accountId, Profile[] profiles, long generation) {
+        put(ACCOUNT_ID_KEY_PREFIX + AccountId.normalize(accountId), profiles, generation);
+    }
+
+    public void putByName(String name, Profile[] profiles, long generation) {
+        put(NAME_KEY_PREFIX + NameFilter.normalize(name), profiles, generation);
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void recordLoad(long latencyNanos) {
+        loadCount++;
+        loadLatencyNanos += latencyNanos;
+    }
+
+    public void invalidate(String accountId, String... names) {
+        List<String> accountIds = accountId == null ? List.of() : List.of(accountId);
+        List<String> nameList = new ArrayList<>();
+        for (String name : names) {
+            if (name != null) {
+                nameList.add(name);
+            }
+        }
+        applyInvalidation(accountIds, nameList, false);
+        notifyInvalidationListener(accountIds, nameList, false);
+    }
+
+    public void invalidateAllNames(String accountId, String... names) {
+        List<String> accountIds = accountId == null ? List.of() : List.of(accountId);
+        List<String> nameList = new ArrayList<>();
+        for (String name : names) {
+            if (name != null) {
+                nameList.add(name);
+            }
+        }
+        applyInvalidation(accountIds, nameList, true);
+        notifyInvalidationListener(accountIds, nameList, true);
+    }
+
+    public void invalidateAccountIds(Collection<String> accountIds) {
+        applyInvalidation(accountIds, List.of(), true);
+        notifyInvalidationListener(accountIds, List.of(), true);
+    }
+
+    public void invalidateAccountIds(Collection<String> accountIds, Collection<String> names) {
+        List<String> nameList = new ArrayList<>();
+        for (String name : names) {
+            if (name != null) {
+                nameList.add(name);
+            }
+        }
+        applyInvalidation(accountIds, nameList, false);
+        notifyInvalidationListener(accountIds, nameList, false);
+    }
+
+    public synchronized void applyInvalidation(Collection<String> accountIds, Collection<String> names, boolean allNames) {
+        generation++;
+        for (String accountId : accountIds) {
+            entries.remove(ACCOUNT_ID_KEY_PREFIX + AccountId.normalize(accountId));
+        }
+        if (nameFilter != null) {
+            for (String name : names) {
+                nameFilter.add(name);
+            }
+        }
+        if (allNames) {
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(NAME_KEY_PREFIX)) {
+                    keys.remove();
+                }
+            }
+            return;
+        }
+        for (String name : names) {
+            entries.remove(NAME_KEY_PREFIX + NameFilter.normalize(name));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        if (nameFilter != null) {
+            nameFilter.reset();
+        }
+    }
+
+    public synchronized void suspend() {
+        if (!suspended) {
+            System.out.println("Profile cache suspended");
+            if (nameFilter != null) {
+                nameFilter.reset();
+            }
+        }
+        suspended = true;
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized void resume() {
+        if (suspended) {
+            System.out.println("Profile cache resumed");
+        }
+        suspended = false;
+    }
+
+    public synchronized boolean isSuspended() {
+        return suspended;
+    }
+
+    public synchronized boolean isNameAbsent(String name) {
+        return !suspended && nameFilter != null && nameFilter.isReady() && !nameFilter.mightContain(name);
+    }
+
+    public synchronized void setNameFilter(NameFilter nameFilter) {
+        this.nameFilter = nameFilter;
+    }
+
+    public synchronized void setInvalidationListener(InvalidationListener invalidationListener) {
+        this.invalidationListener = invalidationListener;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized double getHitRatio() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    public synchronized long getAverageLoadLatencyNanos() {
+        return loadCount == 0 ? 0 : loadLatencyNanos / loadCount;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    private synchronized Profile[] get(String key) {
+        if (suspended) {
+            missCount++;
+            return null;
+        }
+        incrementFrequency(key);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expirationTime - System.nanoTime() <= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return copyProfiles(entry.profiles);
+    }
+
+    private synchronized void put(String key, Profile[] profiles, long generation) {
+        if (suspended || generation != this.generation || profiles == null) {
+            return;
+        }
+        if (!entries.containsKey(key) && entries.size() >= capacity) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<String, Entry> victim = iterator.next();
+            boolean victimExpired = victim.getValue().expirationTime - System.nanoTime() <= 0;
+            if (!victimExpired && estimateFrequency(key) <= estimateFrequency(victim.getKey())) {
+                rejectionCount++;
+                return;
+            }
+            iterator.remove();
+            evictionCount++;
+        }
+        entries.put(key, new Entry(copyProfiles(profiles), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl)));
+    }
+
+    private void notifyInvalidationListener(Collection<String> accountIds, Collection<String> names, boolean allNames) {
+        InvalidationListener listener;
+        synchronized (this) {
+            listener = invalidationListener;
+        }
+        if (listener != null) {
+            listener.onInvalidation(accountIds, names, allNames);
+        }
+    }
+
+    private void incrementFrequency(String key) {
+        int hash = spread(key.hashCode());
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            int index = spread(hash ^ SKETCH_SEEDS[i]) & sketchMask;
+            if (sketch[i][index] < SKETCH_COUNTER_MAX_VALUE) {
+                sketch[i][index]++;
+            }
+        }
+        if (++sketchIncrementCount >= sketchSampleSize) {
+            for (byte[] row : sketch) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            sketchIncrementCount /= 2;
+        }
+    }
+
+    private int estimateFrequency(String key) {
+        int hash = spread(key.hashCode());
+        int frequency = SKETCH_COUNTER_MAX_VALUE;
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            frequency = Math.min(frequency, sketch[i][spread(hash ^ SKETCH_SEEDS[i]) & sketchMask]);
+        }
+        return frequency;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static Profile[] copyProfiles(Profile[] profiles) {
+        Profile[] output = new Profile[profiles.length];
+        for (int i = 0; i < profiles.length; i++) {
+            output[i] = new Profile(profiles[i].getAccountId(), profiles[i].getName());
+        }
+        return output;
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to ProfileCache constructor");
+        }
+        capacity = (int) parseNonNegativeLong(config.get("capacity"), DEFAULT_CAPACITY);
+        ttl = parseNonNegativeLong(config.get("ttl"), DEFAULT_TTL);
+        if (capacity == 0 || capacity > Integer.MAX_VALUE / 4 || ttl == 0 || ttl > TimeUnit.DAYS.toMillis(365)) {
+            throw new RuntimeException("Invalid config provided to ProfileCache constructor");
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to ProfileCache constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to ProfileCache constructor");
+        }
+        return parsedValue;
+    }
+
+    public interface InvalidationListener {
+        void onInvalidation(Collection<String> accountIds, Collection<String> names, boolean allNames);
+    }
+
+    private static class Entry {
+        private final Profile[] profiles;
+        private final long expirationTime;
+
+        public Entry(Profile[] profiles, long expirationTime) {
+            this.profiles = profiles;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
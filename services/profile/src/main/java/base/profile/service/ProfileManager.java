@@ -1,31 +1,72 @@
 package base.profile.service;
 
+import base.profile.AccountId;
+import base.profile.repository.BlobRepository;
 import base.profile.repository.ProfileRepository;
+import base.profile.repository.model.Blob;
 import base.profile.service.model.IllegalArgumentException;
 import base.profile.service.model.*;
 
-import java.util.UUID;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
 
 import static base.profile.Common.wrapException;
 
-public class ProfileManager implements ProfileService {
+public class ProfileManager implements ProfileService, AutoCloseable {
     private static final short ROLES_MAX_VALUE = 255;
     private static final long TIME_MAX_VALUE = 4294967295L;
     private static final String NAME_ALLOWED_CHARS = "-.0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+    private static final long[] NAME_ALLOWED_CHAR_MASK = createCharMask(NAME_ALLOWED_CHARS);
     private static final int NAME_MIN_LENGTH = 2;
     private static final int NAME_MAX_LENGTH = 16;
+    private static final long DEFAULT_AVATAR_MAX_SIZE = 5242880;
+    private static final long DEFAULT_BIO_MAX_SIZE = 65536;
+    private static final long DEFAULT_CREATE_CONCURRENCY = 16;
+    private static final long CREATE_THREAD_KEEP_ALIVE = 60000;
+    private static final Set<String> AVATAR_CONTENT_TYPES = Set.of("image/gif", "image/jpeg", "image/png", "image/webp");
+    private static final String BIO_CONTENT_TYPE = "text/plain; charset=utf-8";
     private final ProfileRepository profileRepository;
     private final AccountServiceClient accountServiceClient;
+    private final TimeService timeService;
+    private final ProfileCache profileCache;
+    private final BlobRepository blobRepository;
+    private final ThreadPoolExecutor createExecutor;
+    private long trustedSessionAgeMaxValue;
+    private long avatarMaxSize;
+    private long bioMaxSize;
+    private int createConcurrency;
 
-    public ProfileManager(ProfileRepository profileRepository, AccountServiceClient accountServiceClient) {
+    public ProfileManager(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, TimeService timeService, Map<String, String> config) {
+        this(profileRepository, accountServiceClient, timeService, null, config);
+    }
+
+    public ProfileManager(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, TimeService timeService, ProfileCache profileCache, Map<String, String> config) {
+        this(profileRepository, accountServiceClient, timeService, profileCache, null, config);
+    }
+
+    public ProfileManager(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, TimeService timeService, ProfileCache profileCache, BlobRepository blobRepository, Map<String, String> config) {
+        configure(config);
         if (profileRepository == null) {
             throw new RuntimeException("Invalid profileRepository provided to ProfileManager constructor");
         }
         if (accountServiceClient == null) {
             throw new RuntimeException("Invalid accountServiceClient provided to ProfileManager constructor");
         }
+        if (timeService == null) {
+            throw new RuntimeException("Invalid timeService provided to ProfileManager constructor");
+        }
         this.profileRepository = profileRepository;
         this.accountServiceClient = accountServiceClient;
+        this.timeService = timeService;
+        this.profileCache = profileCache;
+        this.blobRepository = blobRepository;
+        createExecutor = new ThreadPoolExecutor(createConcurrency, createConcurrency, CREATE_THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "profile-manager-create");
+            thread.setDaemon(true);
+            return thread;
+        });
+        createExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -42,6 +83,12 @@ public class ProfileManager implements ProfileService {
         if (!validateName(name)) {
             throw new IllegalArgumentException();
         }
+        if (profileCache != null) {
+            if (accountId == null && profileCache.isNameAbsent(name)) {
+                return new Profile[0];
+            }
+            return readProfilesThroughCache(accountId, name);
+        }
         base.profile.repository.model.Profile[] matches;
         try {
             matches = profileRepository.readByAccountIdAndName(accountId, name);
@@ -57,7 +104,7 @@ public class ProfileManager implements ProfileService {
     }
 
     @Override
-    public Profile createProfile(Authority authority, Profile profile) throws IllegalArgumentException, AccessDeniedException, ConflictException {
+    public Profile createProfile(Authority authority, Profile profile) throws IllegalArgumentException, AccessDeniedException, ConflictException, UnavailableException {
         if (!validateAuthority(authority)) {
             throw new IllegalArgumentException();
         }
@@ -69,18 +116,11 @@ public class ProfileManager implements ProfileService {
             throw new AccessDeniedException();
         }
         boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
-        if (!authorizedAsSystemOrAdmin && !profile.getAccountId().equals(authority.getId())) {
+        if (!authorizedAsSystemOrAdmin && !profile.getAccountId().equalsIgnoreCase(authority.getId())) {
             throw new AccessDeniedException();
         }
-        boolean accountExists;
-        try {
-            accountExists = accountServiceClient.checkForAccountExistence(authority, profile.getAccountId());
-        }
-        catch (Exception e) {
-            throw wrapException(e, "Failed to invoke account service");
-        }
-        if (!accountExists) {
-            throw new IllegalArgumentException();
+        if (!verifyAuthorityProvesAccountExistence(authority, profile.getAccountId())) {
+            verifyAccountExistsAndProfileAbsent(authority, profile.getAccountId());
         }
         base.profile.repository.model.Profile entry = new base.profile.repository.model.Profile(profile.getAccountId(), profile.getName());
         try {
@@ -92,6 +132,9 @@ public class ProfileManager implements ProfileService {
         catch (Exception e) {
             throw wrapException(e, "Failed to write to profile store");
         }
+        if (profileCache != null) {
+            profileCache.invalidate(entry.getAccountId(), entry.getName());
+        }
         return new Profile(entry.getAccountId(), entry.getName());
     }
 
@@ -110,43 +153,259 @@ public class ProfileManager implements ProfileService {
         if (!authorizedAsSystemOrUserOrAdmin) {
             throw new AccessDeniedException();
         }
-        base.profile.repository.model.Profile[] matches;
+        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
+        String ownerId = authorizedAsSystemOrAdmin ? null : authority.getId();
+        base.profile.repository.model.Profile entry = new base.profile.repository.model.Profile(null, profile.getName());
+        base.profile.repository.model.Profile previousEntry = null;
+        if (authorizedAsSystemOrAdmin || ownerId != null) {
+            try {
+                previousEntry = profileRepository.updateByAccountId(accountId, ownerId, entry);
+            }
+            catch (Exception e) {
+                if (profileCache != null) {
+                    profileCache.invalidateAllNames(accountId, profile.getName());
+                }
+                throw wrapException(e, "Failed to write to profile store");
+            }
+        }
+        if (previousEntry == null) {
+            rejectUnmatchedWrite(accountId, authorizedAsSystemOrAdmin, ownerId);
+        }
+        if (profileCache != null) {
+            profileCache.invalidate(accountId, previousEntry.getName(), profile.getName());
+        }
+        return new Profile(previousEntry.getAccountId(), profile.getName());
+    }
+
+    @Override
+    public void deleteProfile(Authority authority, String accountId) throws IllegalArgumentException, AccessDeniedException, NotFoundException {
+        if (!validateAuthority(authority)) {
+            throw new IllegalArgumentException();
+        }
+        if (accountId == null || !validateId(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        boolean authorizedAsSystemOrUserOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.USER | Role.ADMIN));
+        if (!authorizedAsSystemOrUserOrAdmin) {
+            throw new AccessDeniedException();
+        }
+        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
+        String ownerId = authorizedAsSystemOrAdmin ? null : authority.getId();
+        base.profile.repository.model.Profile previousEntry = null;
+        if (authorizedAsSystemOrAdmin || ownerId != null) {
+            try {
+                previousEntry = profileRepository.deleteByAccountId(accountId, ownerId);
+            }
+            catch (Exception e) {
+                if (profileCache != null) {
+                    profileCache.invalidateAllNames(accountId);
+                }
+                throw wrapException(e, "Failed to write to profile store");
+            }
+        }
+        if (previousEntry == null) {
+            rejectUnmatchedWrite(accountId, authorizedAsSystemOrAdmin, ownerId);
+        }
+        if (profileCache != null) {
+            profileCache.invalidate(accountId, previousEntry.getName());
+        }
+    }
+
+    @Override
+    public int deleteProfiles(Authority authority, String[] accountIds) throws IllegalArgumentException, AccessDeniedException {
+        if (!validateAuthority(authority)) {
+            throw new IllegalArgumentException();
+        }
+        if (accountIds == null) {
+            throw new IllegalArgumentException();
+        }
+        for (String accountId : accountIds) {
+            if (accountId == null || !validateId(accountId)) {
+                throw new IllegalArgumentException();
+            }
+        }
+        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
+        if (!authorizedAsSystemOrAdmin) {
+            throw new AccessDeniedException();
+        }
+        if (accountIds.length == 0) {
+            return 0;
+        }
         try {
-            matches = profileRepository.readByAccountId(accountId);
+            return profileRepository.deleteByAccountIds(accountIds);
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to write to profile store");
+        }
+        finally {
+            if (profileCache != null) {
+                profileCache.invalidateAccountIds(Arrays.asList(accountIds));
+            }
+        }
+    }
+
+    @Override
+    public ProfileAttribute readProfileAttribute(Authority authority, String accountId, String name) throws IllegalArgumentException, NotFoundException {
+        if (!validateAuthority(authority)) {
+            throw new IllegalArgumentException();
+        }
+        if (accountId == null || !validateId(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (!validateAttributeName(name)) {
+            throw new IllegalArgumentException();
+        }
+        if (blobRepository == null) {
+            throw new RuntimeException("No blobRepository provided to ProfileManager constructor");
+        }
+        base.profile.repository.model.ProfileAttribute attribute;
+        try {
+            attribute = profileRepository.readAttribute(accountId, name);
         }
         catch (Exception e) {
             throw wrapException(e, "Failed to read from profile store");
         }
-        if (matches.length == 0) {
+        if (attribute == null) {
             throw new NotFoundException();
         }
-        base.profile.repository.model.Profile match = matches[0];
-        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
-        if (!authorizedAsSystemOrAdmin && !match.getAccountId().equals(authority.getId())) {
+        Blob blob;
+        try {
+            blob = blobRepository.readById(attribute.getBlobId());
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to read from blob store");
+        }
+        if (blob == null) {
+            throw new NotFoundException();
+        }
+        return new ProfileAttribute(blob.getId(), attribute.getContentType(), blob.getSize(), blob.getPath());
+    }
+
+    @Override
+    public void updateProfileAttribute(Authority authority, String accountId, String name, String contentType, InputStream content) throws IllegalArgumentException, AccessDeniedException, NotFoundException {
+        if (!validateAuthority(authority)) {
+            throw new IllegalArgumentException();
+        }
+        if (accountId == null || !validateId(accountId)) {
+            throw new IllegalArgumentException();
+        }
+        if (!validateAttributeName(name)) {
+            throw new IllegalArgumentException();
+        }
+        String normalizedContentType = normalizeContentType(name, contentType);
+        if (normalizedContentType == null || content == null) {
+            throw new IllegalArgumentException();
+        }
+        if (blobRepository == null) {
+            throw new RuntimeException("No blobRepository provided to ProfileManager constructor");
+        }
+        boolean authorizedAsSystemOrUserOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.USER | Role.ADMIN));
+        if (!authorizedAsSystemOrUserOrAdmin) {
             throw new AccessDeniedException();
         }
-        base.profile.repository.model.Profile entry = new base.profile.repository.model.Profile(null, profile.getName());
+        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
+        String ownerId = authorizedAsSystemOrAdmin ? null : authority.getId();
+        if (!authorizedAsSystemOrAdmin && !accountId.equalsIgnoreCase(ownerId)) {
+            rejectUnmatchedWrite(accountId, false, ownerId);
+        }
+        Blob blob;
         try {
-            entry = profileRepository.updateByAccountId(accountId, entry);
+            blob = blobRepository.create(content, ProfileAttribute.NAME_AVATAR.equals(name) ? avatarMaxSize : bioMaxSize);
+        }
+        catch (base.profile.repository.model.IllegalArgumentException e) {
+            throw new IllegalArgumentException();
+        }
+        catch (Exception e) {
+            throw wrapException(e, "Failed to write to blob store");
+        }
+        int updateCount;
+        try {
+            updateCount = profileRepository.updateAttribute(accountId, ownerId, name, new base.profile.repository.model.ProfileAttribute(blob.getId(), normalizedContentType));
         }
         catch (Exception e) {
             throw wrapException(e, "Failed to write to profile store");
         }
-        return new Profile(entry.getAccountId(), entry.getName());
+        if (updateCount == 0) {
+            rejectUnmatchedWrite(accountId, authorizedAsSystemOrAdmin, ownerId);
+        }
     }
 
     @Override
-    public void deleteProfile(Authority authority, String accountId) throws IllegalArgumentException, AccessDeniedException, NotFoundException {
+    public void deleteProfileAttribute(Authority authority, String accountId, String name) throws IllegalArgumentException, AccessDeniedException, NotFoundException {
         if (!validateAuthority(authority)) {
             throw new IllegalArgumentException();
         }
         if (accountId == null || !validateId(accountId)) {
             throw new IllegalArgumentException();
         }
+        if (!validateAttributeName(name)) {
+            throw new IllegalArgumentException();
+        }
         boolean authorizedAsSystemOrUserOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.USER | Role.ADMIN));
         if (!authorizedAsSystemOrUserOrAdmin) {
             throw new AccessDeniedException();
         }
+        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
+        String ownerId = authorizedAsSystemOrAdmin ? null : authority.getId();
+        int updateCount = 0;
+        if (authorizedAsSystemOrAdmin || ownerId != null) {
+            try {
+                updateCount = profileRepository.updateAttribute(accountId, ownerId, name, null);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to write to profile store");
+            }
+        }
+        if (updateCount == 0) {
+            rejectUnmatchedWrite(accountId, authorizedAsSystemOrAdmin, ownerId);
+        }
+    }
+
+    @Override
+    public void close() {
+        createExecutor.shutdownNow();
+    }
+
+    private Profile[] readProfilesThroughCache(String accountId, String name) {
+        Profile[] profiles = accountId != null ? profileCache.getByAccountId(accountId) : profileCache.getByName(name);
+        if (profiles == null) {
+            long generation = profileCache.getGeneration();
+            long startTime = System.nanoTime();
+            base.profile.repository.model.Profile[] matches;
+            try {
+                matches = accountId != null ? profileRepository.readByAccountIdAndName(accountId, null) : profileRepository.readByAccountIdAndName(null, name);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to read from profile store");
+            }
+            profileCache.recordLoad(System.nanoTime() - startTime);
+            profiles = new Profile[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                profiles[i] = new Profile(matches[i].getAccountId(), matches[i].getName());
+            }
+            if (accountId != null) {
+                profileCache.putByAccountId(accountId, profiles, generation);
+            }
+            else {
+                profileCache.putByName(name, profiles, generation);
+            }
+        }
+        if (accountId == null || name == null) {
+            return profiles;
+        }
+        List<Profile> output = new ArrayList<>(profiles.length);
+        for (Profile profile : profiles) {
+            if (name.equalsIgnoreCase(profile.getName())) {
+                output.add(profile);
+            }
+        }
+        return output.toArray(new Profile[0]);
+    }
+
+    private void rejectUnmatchedWrite(String accountId, boolean authorizedAsSystemOrAdmin, String ownerId) throws AccessDeniedException, NotFoundException {
+        if (authorizedAsSystemOrAdmin) {
+            throw new NotFoundException();
+        }
         base.profile.repository.model.Profile[] matches;
         try {
             matches = profileRepository.readByAccountId(accountId);
@@ -154,33 +413,117 @@ public class ProfileManager implements ProfileService {
         catch (Exception e) {
             throw wrapException(e, "Failed to read from profile store");
         }
-        if (matches.length == 0) {
+        if (matches.length == 0 || matches[0].getAccountId().equalsIgnoreCase(ownerId)) {
             throw new NotFoundException();
         }
-        base.profile.repository.model.Profile match = matches[0];
-        boolean authorizedAsSystemOrAdmin = verifyAuthorityContainsAtLeastOneRole(authority, (short) (Role.SYSTEM | Role.ADMIN));
-        if (!authorizedAsSystemOrAdmin && !match.getAccountId().equals(authority.getId())) {
-            throw new AccessDeniedException();
+        throw new AccessDeniedException();
+    }
+
+    private void verifyAccountExistsAndProfileAbsent(Authority authority, String accountId) throws IllegalArgumentException, ConflictException, UnavailableException {
+        Future<Void> accountCheck;
+        try {
+            accountCheck = createExecutor.submit(() -> {
+                boolean accountExists;
+                try {
+                    accountExists = accountServiceClient.checkForAccountExistence(authority, accountId);
+                }
+                catch (Exception e) {
+                    throw wrapException(e, "Failed to invoke account service");
+                }
+                if (!accountExists) {
+                    throw new IllegalArgumentException();
+                }
+                return null;
+            });
+        }
+        catch (RejectedExecutionException e) {
+            throw new UnavailableException();
         }
         try {
-            profileRepository.deleteByAccountId(accountId);
+            base.profile.repository.model.Profile[] matches;
+            try {
+                matches = profileRepository.readByAccountId(accountId);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to read from profile store");
+            }
+            if (matches.length > 0) {
+                throw new ConflictException();
+            }
+            accountCheck.get();
         }
-        catch (Exception e) {
-            throw wrapException(e, "Failed to write to profile store");
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw wrapException(e, "Failed to verify profile creation preconditions");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw wrapException(e, "Interrupted while verifying profile creation preconditions");
+        }
+        finally {
+            accountCheck.cancel(true);
         }
     }
 
-    private static boolean validateId(String id) {
-        if (id == null) {
-            return true;
+    private boolean verifyAuthorityProvesAccountExistence(Authority authority, String accountId) {
+        if (trustedSessionAgeMaxValue <= 0 || authority == null || authority.getId() == null || !authority.getId().equalsIgnoreCase(accountId)) {
+            return false;
+        }
+        if (!verifyAuthorityContainsAtLeastOneRole(authority, Role.USER)) {
+            return false;
         }
+        long currentTime = timeService.currentTimeSeconds();
+        return authority.getAuthTime() > 0 && authority.getAuthTime() <= currentTime && authority.getAuthTime() + trustedSessionAgeMaxValue > currentTime;
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to ProfileManager constructor");
+        }
+        if (config.get("trustedSessionAgeMaxValue") == null || config.get("trustedSessionAgeMaxValue").length() == 0) {
+            trustedSessionAgeMaxValue = 0;
+        }
+        else {
+            try {
+                trustedSessionAgeMaxValue = Long.parseLong(config.get("trustedSessionAgeMaxValue"));
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Invalid config provided to ProfileManager constructor");
+            }
+        }
+        avatarMaxSize = parseNonNegativeLong(config.get("avatarMaxSize"), DEFAULT_AVATAR_MAX_SIZE);
+        bioMaxSize = parseNonNegativeLong(config.get("bioMaxSize"), DEFAULT_BIO_MAX_SIZE);
+        long createConcurrencyValue = parseNonNegativeLong(config.get("createConcurrency"), DEFAULT_CREATE_CONCURRENCY);
+        if (createConcurrencyValue == 0 || createConcurrencyValue > Integer.MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to ProfileManager constructor");
+        }
+        createConcurrency = (int) createConcurrencyValue;
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
         try {
-            UUID.fromString(id);
+            parsedValue = Long.parseLong(value);
         }
         catch (Exception e) {
-            return false;
+            throw new RuntimeException("Invalid config provided to ProfileManager constructor");
         }
-        return true;
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to ProfileManager constructor");
+        }
+        return parsedValue;
+    }
+
+    private static boolean validateId(String id) {
+        return id == null || AccountId.isValid(id);
     }
 
     private static boolean validateAuthority(Authority authority) {
@@ -203,14 +546,43 @@ public class ProfileManager implements ProfileService {
         if (name.length() < NAME_MIN_LENGTH || name.length() > NAME_MAX_LENGTH) {
             return false;
         }
-        for (char letter : name.toCharArray()) {
-            if (NAME_ALLOWED_CHARS.indexOf(letter) < 0) {
+        for (int i = 0; i < name.length(); i++) {
+            char letter = name.charAt(i);
+            if (letter >= 128 || (NAME_ALLOWED_CHAR_MASK[letter >>> 6] & (1L << letter)) == 0) {
                 return false;
             }
         }
         return true;
     }
 
+    private static long[] createCharMask(String chars) {
+        long[] mask = new long[2];
+        for (int i = 0; i < chars.length(); i++) {
+            mask[chars.charAt(i) >>> 6] |= 1L << chars.charAt(i);
+        }
+        return mask;
+    }
+
+    private static boolean validateAttributeName(String name) {
+        return ProfileAttribute.NAME_AVATAR.equals(name) || ProfileAttribute.NAME_BIO.equals(name);
+    }
+
+    private static String normalizeContentType(String name, String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int separatorIndex = contentType.indexOf(';');
+        String mediaType = (separatorIndex < 0 ? contentType : contentType.substring(0, separatorIndex)).trim().toLowerCase(Locale.ROOT);
+        if (ProfileAttribute.NAME_AVATAR.equals(name)) {
+            return AVATAR_CONTENT_TYPES.contains(mediaType) ? mediaType : null;
+        }
+        if (!"text/plain".equals(mediaType)) {
+            return null;
+        }
+        String parameters = separatorIndex < 0 ? "" : contentType.substring(separatorIndex + 1).replace(" ", "").toLowerCase(Locale.ROOT);
+        return parameters.length() == 0 || parameters.equals("charset=utf-8") ? BIO_CONTENT_TYPE : null;
+    }
+
     private static boolean validateProfile(Profile profile, boolean validateAccountId) {
         if (profile == null) {
             return true;
@@ -0,0 +1,328 @@
+package base.profile.service;
+
+import base.profile.repository.LockRepository;
+import base.profile.repository.ProfileRepository;
+import base.profile.repository.model.Profile;
+import base.profile.service.model.Authority;
+import base.profile.service.model.Role;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static base.profile.Common.wrapException;
+
+public class ProfileReconciler implements AutoCloseable {
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final long DEFAULT_RATE_LIMIT = 500;
+    private static final long DEFAULT_INITIAL_DELAY = 60000;
+    private static final long DEFAULT_INTERVAL = 86400000;
+    private static final int PAGE_SIZE_MAX_VALUE = 1000;
+    private static final String LOCK_NAME = "profile-reconciler";
+    private final ProfileRepository profileRepository;
+    private final AccountServiceClient accountServiceClient;
+    private final ProfileCache profileCache;
+    private final BackgroundThrottle backgroundThrottle;
+    private final LockRepository lockRepository;
+    private final Authority authority = new Authority(null, Role.SYSTEM, 0);
+    private final AtomicLong passCount = new AtomicLong();
+    private final AtomicLong scannedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong orphanCount = new AtomicLong();
+    private final AtomicLong deletedCount = new AtomicLong();
+    private int pageSize;
+    private long rateLimit;
+    private long initialDelay;
+    private long interval;
+    private Path checkpointPath;
+    private volatile double lastPassScanRate;
+    private ScheduledExecutorService executor;
+
+    public ProfileReconciler(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, Map<String, String> config) {
+        this(profileRepository, accountServiceClient, null, null, null, config);
+    }
+
+    public ProfileReconciler(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, ProfileCache profileCache, BackgroundThrottle backgroundThrottle, Map<String, String> config) {
+        this(profileRepository, accountServiceClient, profileCache, backgroundThrottle, null, config);
+    }
+
+    public ProfileReconciler(ProfileRepository profileRepository, AccountServiceClient accountServiceClient, ProfileCache profileCache, BackgroundThrottle backgroundThrottle, LockRepository lockRepository, Map<String, String> config) {
+        configure(config);
+        if (profileRepository == null) {
+            throw new RuntimeException("Invalid profileRepository provided to ProfileReconciler constructor");
+        }
+        if (accountServiceClient == null) {
+            throw new RuntimeException("Invalid accountServiceClient provided to ProfileReconciler constructor");
+        }
+        this.profileRepository = profileRepository;
+        this.accountServiceClient = accountServiceClient;
+        this.profileCache = profileCache;
+        this.backgroundThrottle = backgroundThrottle;
+        this.lockRepository = lockRepository;
+    }
+
+    public synchronized void start() {
+        if (executor != null || interval <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "profile-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            }
+            catch (Exception e) {
+                System.out.println("Profile reconciliation pass failed:\n" + e);
+            }
+        }, initialDelay, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void reconcile() {
+        LockRepository.Lock lock = null;
+        if (lockRepository != null) {
+            try {
+                lock = lockRepository.tryLock(LOCK_NAME);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to acquire profile reconciliation lock");
+            }
+            if (lock == null) {
+                System.out.println("Skipping profile reconciliation pass held by another replica");
+                return;
+            }
+        }
+        try {
+            if (isPassDue()) {
+                reconcilePages();
+            }
+        }
+        finally {
+            if (lock != null) {
+                lock.close();
+            }
+        }
+    }
+
+    public long getPassCount() {
+        return passCount.get();
+    }
+
+    public long getScannedCount() {
+        return scannedCount.get();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getOrphanCount() {
+        return orphanCount.get();
+    }
+
+    public long getDeletedCount() {
+        return deletedCount.get();
+    }
+
+    public double getLastPassScanRate() {
+        return lastPassScanRate;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void reconcilePages() {
+        String lastAccountId = readCheckpoint();
+        long startTime = System.nanoTime();
+        long passScannedCount = 0;
+        long passSkippedCount = 0;
+        long passOrphanCount = 0;
+        long passDeletedCount = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Profile[] page;
+            try {
+                page = profileRepository.readAfterAccountId(lastAccountId, pageSize);
+            }
+            catch (Exception e) {
+                throw wrapException(e, "Failed to read from profile store");
+            }
+            if (page == null || page.length == 0) {
+                break;
+            }
+            List<String> accountIds = new ArrayList<>(page.length);
+            for (Profile profile : page) {
+                accountIds.add(profile.getAccountId());
+            }
+            Set<String> existingAccountIds = null;
+            try {
+                existingAccountIds = accountServiceClient.checkForAccountsExistence(authority, accountIds);
+            }
+            catch (Exception e) {
+                System.out.println("Skipping profile reconciliation page after failed account check:\n" + e);
+            }
+            List<String> orphanedAccountIds = new ArrayList<>();
+            List<String> orphanedNames = new ArrayList<>();
+            if (existingAccountIds == null) {
+                passSkippedCount += page.length;
+                skippedCount.addAndGet(page.length);
+            }
+            else {
+                for (Profile profile : page) {
+                    if (!existingAccountIds.contains(profile.getAccountId())) {
+                        orphanedAccountIds.add(profile.getAccountId());
+                        orphanedNames.add(profile.getName());
+                    }
+                }
+            }
+            int pageDeletedCount = 0;
+            if (!orphanedAccountIds.isEmpty()) {
+                try {
+                    pageDeletedCount = profileRepository.deleteByAccountIds(orphanedAccountIds.toArray(new String[0]));
+                }
+                catch (Exception e) {
+                    throw wrapException(e, "Failed to write to profile store");
+                }
+                finally {
+                    if (profileCache != null) {
+                        profileCache.invalidateAccountIds(orphanedAccountIds, orphanedNames);
+                    }
+                }
+            }
+            lastAccountId = accountIds.get(accountIds.size() - 1);
+            writeCheckpoint(lastAccountId);
+            passScannedCount += page.length;
+            passOrphanCount += orphanedAccountIds.size();
+            passDeletedCount += pageDeletedCount;
+            scannedCount.addAndGet(page.length);
+            orphanCount.addAndGet(orphanedAccountIds.size());
+            deletedCount.addAndGet(pageDeletedCount);
+            if (page.length < pageSize) {
+                break;
+            }
+            throttle(startTime, passScannedCount);
+            if (backgroundThrottle != null) {
+                backgroundThrottle.acquire();
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        writeCheckpoint(null);
+        long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+        lastPassScanRate = passScannedCount * 1e9 / elapsedNanos;
+        passCount.incrementAndGet();
+        System.out.println(String.format("Profile reconciliation pass completed: %d scanned, %d skipped, %d orphaned, %d deleted, %.1f profiles/s", passScannedCount, passSkippedCount, passOrphanCount, passDeletedCount, lastPassScanRate));
+    }
+
+    private void throttle(long startTime, long passScannedCount) {
+        if (rateLimit <= 0) {
+            return;
+        }
+        long targetElapsedNanos = passScannedCount * 1000000000L / rateLimit;
+        long sleepNanos = targetElapsedNanos - (System.nanoTime() - startTime);
+        if (sleepNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isPassDue() {
+        if (checkpointPath == null || interval <= 0 || !Files.exists(checkpointPath) || readCheckpoint() != null) {
+            return true;
+        }
+        try {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(checkpointPath).toMillis() >= interval - interval / 10;
+        }
+        catch (Exception e) {
+            return true;
+        }
+    }
+
+    private String readCheckpoint() {
+        if (checkpointPath == null || !Files.exists(checkpointPath)) {
+            return null;
+        }
+        try {
+            String checkpoint = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim();
+            return checkpoint.length() == 0 ? null : checkpoint;
+        }
+        catch (Exception e) {
+            System.out.println("Failed to read profile reconciliation checkpoint:\n" + e);
+            return null;
+        }
+    }
+
+    private void writeCheckpoint(String accountId) {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            Path temporaryPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            Files.writeString(temporaryPath, accountId == null ? "" : accountId, StandardCharsets.UTF_8);
+            Files.move(temporaryPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (Exception e) {
+            System.out.println("Failed to write profile reconciliation checkpoint:\n" + e);
+        }
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+        }
+        pageSize = (int) parseNonNegativeLong(config.get("pageSize"), DEFAULT_PAGE_SIZE);
+        if (pageSize == 0 || pageSize > PAGE_SIZE_MAX_VALUE) {
+            throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+        }
+        rateLimit = parseNonNegativeLong(config.get("rateLimit"), DEFAULT_RATE_LIMIT);
+        initialDelay = parseNonNegativeLong(config.get("initialDelay"), DEFAULT_INITIAL_DELAY);
+        interval = parseNonNegativeLong(config.get("interval"), DEFAULT_INTERVAL);
+        String checkpointPathString = config.get("checkpointPath");
+        if (checkpointPathString != null && checkpointPathString.length() > 0) {
+            try {
+                checkpointPath = Paths.get(checkpointPathString).normalize();
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+            }
+            if (!checkpointPath.isAbsolute()) {
+                throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+            }
+        }
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to ProfileReconciler constructor");
+        }
+        return parsedValue;
+    }
+}
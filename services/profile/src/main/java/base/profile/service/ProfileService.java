@@ -3,9 +3,15 @@ package base.profile.service;
 import base.profile.service.model.IllegalArgumentException;
 import base.profile.service.model.*;
 
+import java.io.InputStream;
+
 public interface ProfileService {
     Profile[] readProfiles(Authority authority, String accountId, String name) throws IllegalArgumentException;
-    Profile createProfile(Authority authority, Profile profile) throws IllegalArgumentException, AccessDeniedException, ConflictException;
+    Profile createProfile(Authority authority, Profile profile) throws IllegalArgumentException, AccessDeniedException, ConflictException, UnavailableException;
     Profile updateProfile(Authority authority, String accountId, Profile profile) throws IllegalArgumentException, AccessDeniedException, NotFoundException;
     void deleteProfile(Authority authority, String accountId) throws IllegalArgumentException, AccessDeniedException, NotFoundException;
+    int deleteProfiles(Authority authority, String[] accountIds) throws IllegalArgumentException, AccessDeniedException;
+    ProfileAttribute readProfileAttribute(Authority authority, String accountId, String name) throws IllegalArgumentException, NotFoundException;
+    void updateProfileAttribute(Authority authority, String accountId, String name, String contentType, InputStream content) throws IllegalArgumentException, AccessDeniedException, NotFoundException;
+    void deleteProfileAttribute(Authority authority, String accountId, String name) throws IllegalArgumentException, AccessDeniedException, NotFoundException;
 }
@@ -0,0 +1,154 @@
+package base.profile.service;
+
+import base.profile.service.model.Authority;
+import base.profile.service.model.Role;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiter implements AutoCloseable {
+    private static final long DEFAULT_USER_RATE = 20;
+    private static final long DEFAULT_USER_BURST = 40;
+    private static final long DEFAULT_ADMIN_RATE = 200;
+    private static final long DEFAULT_ADMIN_BURST = 400;
+    private static final long DEFAULT_ANONYMOUS_RATE = 100;
+    private static final long DEFAULT_ANONYMOUS_BURST = 200;
+    private static final long DEFAULT_IDLE_TIMEOUT = 60000;
+    private static final long DEFAULT_MAX_PRINCIPALS = 100000;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong anonymousBucket = new AtomicLong(System.nanoTime());
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ScheduledExecutorService executor;
+    private Limit userLimit;
+    private Limit adminLimit;
+    private Limit anonymousLimit;
+    private long idleTimeout;
+    private long maxPrincipals;
+
+    public RateLimiter(Map<String, String> config) {
+        configure(config);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::evictIdleBuckets, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public long acquire(Authority authority) {
+        if (authority != null && (authority.getRoles() & Role.SYSTEM) != 0) {
+            return 0;
+        }
+        if (authority == null || authority.getId() == null) {
+            return acquire(anonymousBucket, anonymousLimit);
+        }
+        Limit limit = (authority.getRoles() & Role.ADMIN) != 0 ? adminLimit : userLimit;
+        if (limit == null) {
+            return 0;
+        }
+        AtomicLong bucket = buckets.get(authority.getId());
+        if (bucket == null) {
+            if (buckets.mappingCount() >= maxPrincipals) {
+                return acquire(anonymousBucket, anonymousLimit);
+            }
+            bucket = buckets.computeIfAbsent(authority.getId(), key -> new AtomicLong(System.nanoTime()));
+        }
+        return acquire(bucket, limit);
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getPrincipalCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private long acquire(AtomicLong bucket, Limit limit) {
+        if (limit == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long arrivalTime = bucket.get();
+            long nextArrivalTime = (arrivalTime - now < 0 ? now : arrivalTime) + limit.emissionInterval;
+            long waitTime = nextArrivalTime - now - limit.burstTolerance;
+            if (waitTime > 0) {
+                rejectedCount.incrementAndGet();
+                return waitTime;
+            }
+            if (bucket.compareAndSet(arrivalTime, nextArrivalTime)) {
+                return 0;
+            }
+        }
+    }
+
+    private void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now < 0);
+    }
+
+    private void configure(Map<String, String> config) {
+        if (config == null) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+        userLimit = createLimit(parseNonNegativeLong(config.get("userRate"), DEFAULT_USER_RATE), parseNonNegativeLong(config.get("userBurst"), DEFAULT_USER_BURST));
+        adminLimit = createLimit(parseNonNegativeLong(config.get("adminRate"), DEFAULT_ADMIN_RATE), parseNonNegativeLong(config.get("adminBurst"), DEFAULT_ADMIN_BURST));
+        anonymousLimit = createLimit(parseNonNegativeLong(config.get("anonymousRate"), DEFAULT_ANONYMOUS_RATE), parseNonNegativeLong(config.get("anonymousBurst"), DEFAULT_ANONYMOUS_BURST));
+        idleTimeout = parseNonNegativeLong(config.get("idleTimeout"), DEFAULT_IDLE_TIMEOUT);
+        maxPrincipals = parseNonNegativeLong(config.get("maxPrincipals"), DEFAULT_MAX_PRINCIPALS);
+        if (idleTimeout == 0 || maxPrincipals == 0) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+    }
+
+    private static Limit createLimit(long rate, long burst) {
+        if (rate == 0) {
+            return null;
+        }
+        if (burst == 0 || rate > TimeUnit.SECONDS.toNanos(1)) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+        long emissionInterval = TimeUnit.SECONDS.toNanos(1) / rate;
+        if (burst > Long.MAX_VALUE / 4 / emissionInterval) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+        return new Limit(emissionInterval, emissionInterval * burst);
+    }
+
+    private static long parseNonNegativeLong(String value, long defaultValue) {
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        long parsedValue;
+        try {
+            parsedValue = Long.parseLong(value);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+        if (parsedValue < 0) {
+            throw new RuntimeException("Invalid config provided to RateLimiter constructor");
+        }
+        return parsedValue;
+    }
+
+    private static class Limit {
+        private final long emissionInterval;
+        private final long burstTolerance;
+
+        public Limit(long emissionInterval, long burstTolerance) {
+            this.emissionInterval = emissionInterval;
+            this.burstTolerance = burstTolerance;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package base.profile.service;
+
+public class RetryBudget {
+    private final double ratio;
+    private final double maxBalance;
+    private double balance;
+
+    public RetryBudget(double ratio, double maxBalance) {
+        if (ratio < 0 || maxBalance < 0) {
+            throw new RuntimeException("Invalid arguments provided to RetryBudget constructor");
+        }
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+        balance = maxBalance;
+    }
+
+    public synchronized void recordRequest() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (balance < 1) {
+            return false;
+        }
+        balance--;
+        return true;
+    }
+}
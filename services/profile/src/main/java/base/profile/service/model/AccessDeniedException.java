@@ -2,6 +2,6 @@ package base.profile.service.model;
 
 public class AccessDeniedException extends Exception {
     public AccessDeniedException() {
-        super("Access denied");
+        super("Access denied", null, false, false);
     }
 }
@@ -2,6 +2,6 @@ package base.profile.service.model;
 
 public class ConflictException extends Exception {
     public ConflictException() {
-        super("Conflict");
+        super("Conflict", null, false, false);
     }
 }
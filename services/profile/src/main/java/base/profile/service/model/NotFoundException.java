@@ -2,6 +2,6 @@ package base.profile.service.model;
 
 public class NotFoundException extends Exception {
     public NotFoundException() {
-        super("Not found");
+        super("Not found", null, false, false);
     }
 }
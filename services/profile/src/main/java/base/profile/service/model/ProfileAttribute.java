@@ -0,0 +1,53 @@
+package base.profile.service.model;
+
+import java.nio.file.Path;
+
+public class ProfileAttribute {
+    public static final String NAME_AVATAR = "avatar";
+    public static final String NAME_BIO = "bio";
+    private String id;
+    private String contentType;
+    private long size;
+    private Path path;
+
+    public ProfileAttribute() { }
+
+    public ProfileAttribute(String id, String contentType, long size, Path path) {
+        this.id = id;
+        this.contentType = contentType;
+        this.size = size;
+        this.path = path;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void setPath(Path path) {
+        this.path = path;
+    }
+}
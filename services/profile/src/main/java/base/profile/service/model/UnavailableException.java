@@ -0,0 +1,7 @@
+package base.profile.service.model;
+
+public class UnavailableException extends Exception {
+    public UnavailableException() {
+        super("Unavailable", null, false, false);
+    }
+}
@@ -0,0 +1,121 @@
+package base.profile.test;
+
+import base.profile.service.AccountServiceBridge;
+import base.profile.service.HttpClient;
+import base.profile.service.model.Authority;
+import base.profile.service.model.Role;
+import base.profile.test.spy.HttpClientSpy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AccountServiceBridgeTests {
+    private static final String ACCOUNT_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String MISSING_ACCOUNT_ID = "00000000-0000-0000-0000-000000000001";
+    private static final Authority AUTHORITY = new Authority(null, Role.SYSTEM, 0);
+    private static final HttpClientSpy httpClientSpy = new HttpClientSpy();
+    public static final Test[] tests = new Test[] {
+            new Test("Check for accounts existence", new CheckForAccountsExistenceTest()),
+            new Test("Reject incomplete account existence response", new RejectIncompleteAccountExistenceResponseTest()),
+            new Test("Wait for first successful hedged response", new WaitForFirstSuccessfulHedgedResponseTest()),
+            new Test("Bound hedged request concurrency", new BoundHedgedRequestConcurrencyTest())
+    };
+
+    private static class CheckForAccountsExistenceTest implements Test.Runnable {
+        @Override
+        public void run() {
+            httpClientSpy.resetSpy();
+            httpClientSpy.setSendRequestReturnValue(createResponse(200, "[{\"id\":\"" + ACCOUNT_ID.toUpperCase() + "\"},null]"));
+            Set<String> output;
+            try (AccountServiceBridge accountServiceBridge = new AccountServiceBridge(httpClientSpy, Map.of())) {
+                output = accountServiceBridge.checkForAccountsExistence(AUTHORITY, List.of(ACCOUNT_ID, MISSING_ACCOUNT_ID));
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: AccountServiceBridge.checkForAccountsExistence(): " + e.getMessage());
+            }
+            if (httpClientSpy.getSendRequestInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: HttpClient.sendRequest(): Invocation count");
+            }
+            if (!List.of(ACCOUNT_ID, MISSING_ACCOUNT_ID).equals(httpClientSpy.getSendRequestRequestArgument().getQueryParameters().get("id"))) {
+                throw new RuntimeException("Actual value does not match expected value: HttpClient.sendRequest(): request argument");
+            }
+            if (!Set.of(ACCOUNT_ID).equals(output)) {
+                throw new RuntimeException("Actual value does not match expected value: AccountServiceBridge.checkForAccountsExistence(): Return value");
+            }
+        }
+    }
+
+    private static class RejectIncompleteAccountExistenceResponseTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String[] bodies = new String[] { null, "null", "[]", "[{\"id\":\"" + ACCOUNT_ID + "\"}]", "[{\"id\":\"" + MISSING_ACCOUNT_ID + "\"},null]" };
+            try (AccountServiceBridge accountServiceBridge = new AccountServiceBridge(httpClientSpy, Map.of())) {
+                for (String body : bodies) {
+                    httpClientSpy.resetSpy();
+                    httpClientSpy.setSendRequestReturnValue(createResponse(200, body));
+                    Exception exception = null;
+                    try {
+                        accountServiceBridge.checkForAccountsExistence(AUTHORITY, List.of(ACCOUNT_ID, MISSING_ACCOUNT_ID));
+                    }
+                    catch (Exception e) {
+                        exception = e;
+                    }
+                    if (!(exception instanceof RuntimeException)) {
+                        throw new RuntimeException("Actual value does not match expected value: AccountServiceBridge.checkForAccountsExistence(): Exception for response body " + body);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class WaitForFirstSuccessfulHedgedResponseTest implements Test.Runnable {
+        @Override
+        public void run() {
+            httpClientSpy.resetSpy();
+            httpClientSpy.setSendRequestReturnValues(createResponse(200, null), createResponse(503, null));
+            httpClientSpy.setSendRequestDelays(300, 0);
+            boolean output;
+            try (AccountServiceBridge accountServiceBridge = new AccountServiceBridge(httpClientSpy, Map.of("hedgeDelay", "20", "maxRetries", "0"))) {
+                output = accountServiceBridge.checkForAccountExistence(AUTHORITY, ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: AccountServiceBridge.checkForAccountExistence(): " + e.getMessage());
+            }
+            if (httpClientSpy.getSendRequestInvokeCount() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: HttpClient.sendRequest(): Invocation count");
+            }
+            if (!output) {
+                throw new RuntimeException("Actual value does not match expected value: AccountServiceBridge.checkForAccountExistence(): Return value");
+            }
+        }
+    }
+
+    private static class BoundHedgedRequestConcurrencyTest implements Test.Runnable {
+        @Override
+        public void run() {
+            httpClientSpy.resetSpy();
+            httpClientSpy.setSendRequestReturnValue(createResponse(200, null));
+            httpClientSpy.setSendRequestDelays(100);
+            boolean output;
+            try (AccountServiceBridge accountServiceBridge = new AccountServiceBridge(httpClientSpy, Map.of("hedgeDelay", "10", "hedgeConcurrency", "1"))) {
+                output = accountServiceBridge.checkForAccountExistence(AUTHORITY, ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: AccountServiceBridge.checkForAccountExistence(): " + e.getMessage());
+            }
+            if (httpClientSpy.getSendRequestInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: HttpClient.sendRequest(): Invocation count");
+            }
+            if (!output) {
+                throw new RuntimeException("Actual value does not match expected value: AccountServiceBridge.checkForAccountExistence(): Return value");
+            }
+        }
+    }
+
+    private static HttpClient.Response createResponse(int status, String body) {
+        return new HttpClient.Response((short) status, Map.of(), body == null ? null : new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,79 @@
+package base.profile.test;
+
+import base.profile.service.BackgroundThrottle;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class BackgroundThrottleTests {
+    private static final long TIMEOUT = 5000;
+    public static final Test[] tests = new Test[] {
+            new Test("Reject invalid config", new RejectInvalidConfigTest()),
+            new Test("Throttle while foreground is slow", new ThrottleWhileForegroundIsSlowTest())
+    };
+
+    private static class RejectInvalidConfigTest implements Test.Runnable {
+        @Override
+        public void run() {
+            for (String key : new String[] { "latencyTarget", "delayStep", "adjustmentInterval" }) {
+                for (String value : new String[] { "0", "-1", "value" }) {
+                    Exception exception = null;
+                    try {
+                        new BackgroundThrottle(Map.of(key, value)).close();
+                    }
+                    catch (Exception e) {
+                        exception = e;
+                    }
+                    if (exception == null) {
+                        throw new RuntimeException("Actual value does not match expected value: BackgroundThrottle(): Exception for " + key + " " + value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class ThrottleWhileForegroundIsSlowTest implements Test.Runnable {
+        @Override
+        public void run() {
+            try (BackgroundThrottle backgroundThrottle = new BackgroundThrottle(Map.of("latencyTarget", "10", "delayStep", "5", "maxDelay", "20", "adjustmentInterval", "20"))) {
+                if (backgroundThrottle.getDelay() != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: BackgroundThrottle.getDelay(): Initial return value");
+                }
+                long deadline = System.currentTimeMillis() + TIMEOUT;
+                while (backgroundThrottle.getDelay() < 20) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new RuntimeException("Actual value does not match expected value: BackgroundThrottle.getDelay(): Return value while foreground is slow");
+                    }
+                    for (int i = 0; i < 20; i++) {
+                        backgroundThrottle.recordForegroundLatency(TimeUnit.MILLISECONDS.toNanos(50));
+                    }
+                    sleep(5);
+                }
+                long startTime = System.currentTimeMillis();
+                backgroundThrottle.acquire();
+                if (System.currentTimeMillis() - startTime < 15) {
+                    throw new RuntimeException("Actual value does not match expected value: BackgroundThrottle.acquire(): Delay while throttled");
+                }
+                deadline = System.currentTimeMillis() + TIMEOUT;
+                while (backgroundThrottle.getDelay() > 0) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new RuntimeException("Actual value does not match expected value: BackgroundThrottle.getDelay(): Return value after foreground recovers");
+                    }
+                    for (int i = 0; i < 20; i++) {
+                        backgroundThrottle.recordForegroundLatency(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                    sleep(5);
+                }
+            }
+        }
+    }
+
+    private static void sleep(long duration) {
+        try {
+            Thread.sleep(duration);
+        }
+        catch (InterruptedException e) {
+            throw new RuntimeException("Unexpected exception: Thread.sleep(): " + e.getMessage());
+        }
+    }
+}
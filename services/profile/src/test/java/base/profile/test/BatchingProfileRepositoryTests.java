@@ -0,0 +1,135 @@
+package base.profile.test;
+
+import base.profile.repository.BatchingProfileRepository;
+import base.profile.repository.model.Profile;
+import base.profile.test.spy.ProfileRepositorySpy;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class BatchingProfileRepositoryTests {
+    private static final String ACCOUNT_ID_FORMAT = "00000000-0000-0000-0000-%012d";
+    private static final String PROFILE_NAME = "Qwer";
+    private static final int CONCURRENT_READ_COUNT = 8;
+    private static final ProfileRepositorySpy profileRepositorySpy = new ProfileRepositorySpy();
+    public static final Test[] tests = new Test[] {
+            new Test("Batch concurrent reads", new BatchConcurrentReadsTest()),
+            new Test("Batch reads with uppercase account ID", new BatchUppercaseAccountIdReadTest()),
+            new Test("Fail batched reads on error", new FailBatchedReadsOnErrorTest())
+    };
+
+    private static class BatchConcurrentReadsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            BatchingProfileRepository batchingProfileRepository = new BatchingProfileRepository(profileRepositorySpy, Map.of("windowMicros", "10000000", "maxBatchSize", String.valueOf(CONCURRENT_READ_COUNT)));
+            profileRepositorySpy.resetSpy();
+            Profile[] profiles = new Profile[CONCURRENT_READ_COUNT - 1];
+            for (int i = 0; i < profiles.length; i++) {
+                profiles[i] = new Profile(String.format(ACCOUNT_ID_FORMAT, i), PROFILE_NAME);
+            }
+            profileRepositorySpy.setReadByAccountIdsReturnValue(profiles);
+            ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_READ_COUNT);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[CONCURRENT_READ_COUNT];
+            for (int i = 0; i < CONCURRENT_READ_COUNT; i++) {
+                String accountId = String.format(ACCOUNT_ID_FORMAT, i);
+                futures[i] = executor.submit(() -> {
+                    startLatch.await();
+                    return batchingProfileRepository.readByAccountId(accountId);
+                });
+            }
+            startLatch.countDown();
+            Profile[][] outputs = new Profile[CONCURRENT_READ_COUNT][];
+            try {
+                for (int i = 0; i < CONCURRENT_READ_COUNT; i++) {
+                    outputs[i] = (Profile[]) futures[i].get(5, TimeUnit.SECONDS);
+                }
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: BatchingProfileRepository.readByAccountId(): " + e.getMessage());
+            }
+            finally {
+                executor.shutdownNow();
+            }
+            if (profileRepositorySpy.getReadByAccountIdsInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIds(): Invocation count");
+            }
+            if (profileRepositorySpy.getReadByAccountIdsAccountIdsArgument().length != CONCURRENT_READ_COUNT) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIds(): accountIds argument");
+            }
+            for (int i = 0; i < CONCURRENT_READ_COUNT - 1; i++) {
+                if (outputs[i].length != 1 || !String.format(ACCOUNT_ID_FORMAT, i).equals(outputs[i][0].getAccountId())) {
+                    throw new RuntimeException("Actual value does not match expected value: BatchingProfileRepository.readByAccountId(): Return value");
+                }
+            }
+            if (outputs[CONCURRENT_READ_COUNT - 1].length != 0) {
+                throw new RuntimeException("Actual value does not match expected value: BatchingProfileRepository.readByAccountId(): Return value for missing profile");
+            }
+        }
+    }
+
+    private static class BatchUppercaseAccountIdReadTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String accountId = "0000000a-000b-000c-000d-00000000000e";
+            BatchingProfileRepository batchingProfileRepository = new BatchingProfileRepository(profileRepositorySpy, Map.of("windowMicros", "0"));
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdsReturnValue(new Profile[] { new Profile(accountId, PROFILE_NAME) });
+            Profile[] output;
+            try {
+                output = batchingProfileRepository.readByAccountId(accountId.toUpperCase());
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: BatchingProfileRepository.readByAccountId(): " + e.getMessage());
+            }
+            String[] accountIdsArgument = profileRepositorySpy.getReadByAccountIdsAccountIdsArgument();
+            if (accountIdsArgument.length != 1 || !accountId.equals(accountIdsArgument[0])) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIds(): accountIds argument");
+            }
+            if (output.length != 1 || !accountId.equals(output[0].getAccountId())) {
+                throw new RuntimeException("Actual value does not match expected value: BatchingProfileRepository.readByAccountId(): Return value");
+            }
+        }
+    }
+
+    private static class FailBatchedReadsOnErrorTest implements Test.Runnable {
+        @Override
+        public void run() {
+            BatchingProfileRepository batchingProfileRepository = new BatchingProfileRepository(profileRepositorySpy, Map.of("windowMicros", "10000000", "maxBatchSize", String.valueOf(CONCURRENT_READ_COUNT)));
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdsError(new OutOfMemoryError("Batched read"));
+            ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_READ_COUNT);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[CONCURRENT_READ_COUNT];
+            for (int i = 0; i < CONCURRENT_READ_COUNT; i++) {
+                String accountId = String.format(ACCOUNT_ID_FORMAT, i);
+                futures[i] = executor.submit(() -> {
+                    startLatch.await();
+                    return batchingProfileRepository.readByAccountId(accountId);
+                });
+            }
+            startLatch.countDown();
+            try {
+                for (int i = 0; i < CONCURRENT_READ_COUNT; i++) {
+                    Throwable cause = null;
+                    try {
+                        futures[i].get(5, TimeUnit.SECONDS);
+                    }
+                    catch (ExecutionException e) {
+                        cause = e.getCause();
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException("Unexpected exception: BatchingProfileRepository.readByAccountId(): " + e.getMessage());
+                    }
+                    if (!(cause instanceof OutOfMemoryError)) {
+                        throw new RuntimeException("Actual value does not match expected value: BatchingProfileRepository.readByAccountId(): Error");
+                    }
+                }
+            }
+            finally {
+                executor.shutdownNow();
+                profileRepositorySpy.resetSpy();
+            }
+        }
+    }
+}
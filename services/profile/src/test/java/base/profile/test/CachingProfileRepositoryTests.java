@@ -0,0 +1,177 @@
+package base.profile.test;
+
+import base.profile.repository.CachingProfileRepository;
+import base.profile.repository.InProcessRemoteCache;
+import base.profile.repository.model.Profile;
+import base.profile.test.spy.ProfileRepositorySpy;
+
+import java.util.Map;
+
+public class CachingProfileRepositoryTests {
+    private static final String ACCOUNT_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String OTHER_ACCOUNT_ID = "00000000-0000-0000-0000-000000000001";
+    private static final String PROFILE_NAME = "Qwer";
+    private static final ProfileRepositorySpy profileRepositorySpy = new ProfileRepositorySpy();
+    public static final Test[] tests = new Test[] {
+            new Test("Read through remote cache", new ReadThroughRemoteCacheTest()),
+            new Test("Invalidate remote cache on write", new InvalidateRemoteCacheOnWriteTest()),
+            new Test("Bound remote cache size", new BoundRemoteCacheSizeTest()),
+            new Test("Discard load raced by invalidation", new DiscardRacedLoadTest()),
+            new Test("Read batch through remote cache", new ReadBatchThroughRemoteCacheTest())
+    };
+
+    private static class ReadThroughRemoteCacheTest implements Test.Runnable {
+        @Override
+        public void run() {
+            CachingProfileRepository cachingProfileRepository = new CachingProfileRepository(profileRepositorySpy, new InProcessRemoteCache(), Map.of("earlyRefreshBeta", "0"));
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME) });
+            Profile[] firstOutput;
+            Profile[] secondOutput;
+            try {
+                firstOutput = cachingProfileRepository.readByAccountId(ACCOUNT_ID);
+                secondOutput = cachingProfileRepository.readByAccountIdAndName(ACCOUNT_ID, PROFILE_NAME);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: CachingProfileRepository.readByAccountId(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
+            }
+            if (!ACCOUNT_ID.equals(profileRepositorySpy.getReadByAccountIdAccountIdArgument())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): accountId argument");
+            }
+            if (firstOutput.length != 1 || !PROFILE_NAME.equals(firstOutput[0].getName()) || secondOutput.length != 1 || !PROFILE_NAME.equals(secondOutput[0].getName())) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository.readByAccountId(): Return value");
+            }
+            if (cachingProfileRepository.getHitCount() != 1 || cachingProfileRepository.getMissCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository: Hit and miss counts");
+            }
+        }
+    }
+
+    private static class InvalidateRemoteCacheOnWriteTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String changedName = "changed";
+            CachingProfileRepository cachingProfileRepository = new CachingProfileRepository(profileRepositorySpy, new InProcessRemoteCache(), Map.of("earlyRefreshBeta", "0"));
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME) });
+            profileRepositorySpy.setUpdateByAccountIdReturnValue(new Profile(ACCOUNT_ID, PROFILE_NAME));
+            Profile[] output;
+            try {
+                cachingProfileRepository.readByAccountId(ACCOUNT_ID);
+                profileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, changedName) });
+                cachingProfileRepository.updateByAccountId(ACCOUNT_ID, null, new Profile(null, changedName));
+                output = cachingProfileRepository.readByAccountId(ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: CachingProfileRepository: " + e.getMessage());
+            }
+            if (profileRepositorySpy.getUpdateByAccountIdInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateByAccountId(): Invocation count");
+            }
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
+            }
+            if (output.length != 1 || !changedName.equals(output[0].getName())) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository.readByAccountId(): Return value");
+            }
+        }
+    }
+
+    private static class BoundRemoteCacheSizeTest implements Test.Runnable {
+        @Override
+        public void run() {
+            InProcessRemoteCache remoteCache = new InProcessRemoteCache(2);
+            remoteCache.set("a", "a", 60000);
+            remoteCache.set("b", "b", 60000);
+            remoteCache.set("b", "b", 60000);
+            if (remoteCache.size() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: InProcessRemoteCache.size(): Return value after overwrite");
+            }
+            remoteCache.set("c", "c", 60000);
+            if (remoteCache.size() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: InProcessRemoteCache.size(): Return value after eviction");
+            }
+            if (!"c".equals(remoteCache.get("c"))) {
+                throw new RuntimeException("Actual value does not match expected value: InProcessRemoteCache.get(): Return value");
+            }
+        }
+    }
+
+    private static class DiscardRacedLoadTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String changedName = "changed";
+            InProcessRemoteCache remoteCache = new InProcessRemoteCache();
+            CachingProfileRepository writingRepository = new CachingProfileRepository(profileRepositorySpy, remoteCache, Map.of("earlyRefreshBeta", "0"));
+            ProfileRepositorySpy racingProfileRepositorySpy = new ProfileRepositorySpy() {
+                @Override
+                public synchronized Profile[] readByAccountId(String accountId) {
+                    Profile[] profiles = super.readByAccountId(accountId);
+                    try {
+                        writingRepository.updateByAccountId(accountId, null, new Profile(null, changedName));
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException("Unexpected exception: CachingProfileRepository.updateByAccountId(): " + e.getMessage());
+                    }
+                    return profiles;
+                }
+            };
+            CachingProfileRepository readingRepository = new CachingProfileRepository(racingProfileRepositorySpy, remoteCache, Map.of("earlyRefreshBeta", "0"));
+            profileRepositorySpy.resetSpy();
+            racingProfileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME) });
+            profileRepositorySpy.setUpdateByAccountIdReturnValue(new Profile(ACCOUNT_ID, changedName));
+            profileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, changedName) });
+            Profile[] output;
+            try {
+                readingRepository.readByAccountId(ACCOUNT_ID);
+                output = writingRepository.readByAccountId(ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: CachingProfileRepository.readByAccountId(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
+            }
+            if (output.length != 1 || !changedName.equals(output[0].getName())) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository.readByAccountId(): Return value");
+            }
+        }
+    }
+
+    private static class ReadBatchThroughRemoteCacheTest implements Test.Runnable {
+        @Override
+        public void run() {
+            CachingProfileRepository cachingProfileRepository = new CachingProfileRepository(profileRepositorySpy, new InProcessRemoteCache(), Map.of("earlyRefreshBeta", "0"));
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME) });
+            profileRepositorySpy.setReadByAccountIdsReturnValue(new Profile[] { new Profile(OTHER_ACCOUNT_ID, PROFILE_NAME) });
+            Profile[] firstOutput;
+            Profile[] secondOutput;
+            String[] accountIdsArgument;
+            try {
+                cachingProfileRepository.readByAccountId(ACCOUNT_ID);
+                firstOutput = cachingProfileRepository.readByAccountIds(new String[] { ACCOUNT_ID, OTHER_ACCOUNT_ID });
+                accountIdsArgument = profileRepositorySpy.getReadByAccountIdsAccountIdsArgument();
+                secondOutput = cachingProfileRepository.readByAccountIds(new String[] { OTHER_ACCOUNT_ID.toUpperCase(), ACCOUNT_ID });
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: CachingProfileRepository.readByAccountIds(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getReadByAccountIdsInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIds(): Invocation count");
+            }
+            if (accountIdsArgument.length != 1 || !OTHER_ACCOUNT_ID.equals(accountIdsArgument[0])) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIds(): accountIds argument");
+            }
+            if (firstOutput.length != 2 || secondOutput.length != 2) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository.readByAccountIds(): Return value");
+            }
+            if (cachingProfileRepository.getHitCount() != 3 || cachingProfileRepository.getMissCount() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: CachingProfileRepository: Hit and miss counts");
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package base.profile.test;
+
+import base.profile.service.ConcurrencyLimiter;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimiterTests {
+    private static final int LIMIT = 10;
+    public static final Test[] tests = new Test[] {
+            new Test("Shed requests over limit", new ShedRequestsOverLimitTest()),
+            new Test("Reduce limit when latency rises", new ReduceLimitWhenLatencyRisesTest())
+    };
+
+    private static class ShedRequestsOverLimitTest implements Test.Runnable {
+        @Override
+        public void run() {
+            ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(Map.of("initialLimit", String.valueOf(LIMIT), "minLimit", String.valueOf(LIMIT), "maxLimit", String.valueOf(LIMIT), "systemReserve", "0.1"));
+            for (int i = 0; i < LIMIT - 1; i++) {
+                if (!concurrencyLimiter.tryAcquire(false)) {
+                    throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter.tryAcquire(): Return value within limit");
+                }
+            }
+            if (concurrencyLimiter.tryAcquire(false)) {
+                throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter.tryAcquire(): Return value over user share");
+            }
+            if (!concurrencyLimiter.tryAcquire(true)) {
+                throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter.tryAcquire(): Return value for system request within reserve");
+            }
+            if (concurrencyLimiter.tryAcquire(true)) {
+                throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter.tryAcquire(): Return value for system request over limit");
+            }
+            concurrencyLimiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+            if (!concurrencyLimiter.tryAcquire(true) || concurrencyLimiter.getInflight() != LIMIT || concurrencyLimiter.getRejectedCount() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter: State after release");
+            }
+        }
+    }
+
+    private static class ReduceLimitWhenLatencyRisesTest implements Test.Runnable {
+        @Override
+        public void run() {
+            ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(Map.of("initialLimit", "50", "minLimit", "4", "maxLimit", "200"));
+            for (int i = 0; i < 50; i++) {
+                concurrencyLimiter.tryAcquire(true);
+            }
+            concurrencyLimiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+            int initialLimit = concurrencyLimiter.getLimit();
+            for (int i = 0; i < 20; i++) {
+                concurrencyLimiter.tryAcquire(true);
+                concurrencyLimiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+            }
+            if (concurrencyLimiter.getLimit() >= initialLimit) {
+                throw new RuntimeException("Actual value does not match expected value: ConcurrencyLimiter.getLimit(): Return value after latency rise");
+            }
+        }
+    }
+}
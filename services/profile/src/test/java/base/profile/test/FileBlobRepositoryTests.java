@@ -0,0 +1,198 @@
+package base.profile.test;
+
+import base.profile.repository.FileBlobRepository;
+import base.profile.repository.model.Blob;
+import base.profile.repository.model.IllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class FileBlobRepositoryTests {
+    private static final byte[] CONTENT = "Lorem ipsum dolor sit amet".getBytes(StandardCharsets.UTF_8);
+    private static final String CONTENT_ID = "16aba5393ad72c0041f5600ad3c2c52ec437a2f0c7fc08fadfc3c0fe9641d7a3";
+    public static final Test[] tests = new Test[] {
+            new Test("Open blob store", new OpenBlobStoreTest()),
+            new Test("Create blob", new CreateBlobTest()),
+            new Test("Delete blob", new DeleteBlobTest())
+    };
+
+    private static class OpenBlobStoreTest implements Test.Runnable {
+        @Override
+        public void run() {
+            Path root = createRoot();
+            try {
+                for (String path : new String[] { null, "", "profile-blobs" }) {
+                    Map<String, String> config = new HashMap<>();
+                    config.put("path", path);
+                    Exception exception = null;
+                    try {
+                        new FileBlobRepository(config);
+                    }
+                    catch (Exception e) {
+                        exception = e;
+                    }
+                    if (exception == null) {
+                        throw new RuntimeException("Actual value does not match expected value: FileBlobRepository(): Exception for path " + path);
+                    }
+                }
+                Path file = root.resolve("file");
+                try {
+                    Files.createFile(file);
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: Files.createFile(): " + e.getMessage());
+                }
+                Exception exception = null;
+                try {
+                    new FileBlobRepository(Map.of("path", file.toString()));
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (exception == null) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository(): Exception for non-directory path");
+                }
+                try {
+                    new FileBlobRepository(Map.of("path", root.resolve("nested").toString()));
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: FileBlobRepository(): " + e.getMessage());
+                }
+                if (!Files.isDirectory(root.resolve("nested").resolve("tmp"))) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository(): Temporary directory");
+                }
+            }
+            finally {
+                deleteRoot(root);
+            }
+        }
+    }
+
+    private static class CreateBlobTest implements Test.Runnable {
+        @Override
+        public void run() {
+            Path root = createRoot();
+            try {
+                FileBlobRepository blobRepository = new FileBlobRepository(Map.of("path", root.toString(), "bufferSize", "4"));
+                Blob output;
+                Blob duplicateOutput;
+                try {
+                    output = blobRepository.create(new ByteArrayInputStream(CONTENT), CONTENT.length);
+                    duplicateOutput = blobRepository.create(new ByteArrayInputStream(CONTENT), CONTENT.length);
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: FileBlobRepository.create(): " + e.getMessage());
+                }
+                if (!CONTENT_ID.equals(output.getId()) || !CONTENT_ID.equals(duplicateOutput.getId())) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.create(): Return value id");
+                }
+                if (output.getSize() != CONTENT.length) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.create(): Return value size");
+                }
+                Exception exception = null;
+                try {
+                    blobRepository.create(new ByteArrayInputStream(CONTENT), CONTENT.length - 1);
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (!(exception instanceof IllegalArgumentException)) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.create(): Exception for oversized content");
+                }
+                Blob[] blobs;
+                try {
+                    if (!Files.readString(blobRepository.readById(CONTENT_ID).getPath()).equals(new String(CONTENT, StandardCharsets.UTF_8))) {
+                        throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.readById(): Return value content");
+                    }
+                    blobs = blobRepository.readAfterId(null, 10);
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: FileBlobRepository.readAfterId(): " + e.getMessage());
+                }
+                if (blobs.length != 1 || !CONTENT_ID.equals(blobs[0].getId())) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.readAfterId(): Return value");
+                }
+                try (Stream<Path> temporaryFiles = Files.list(root.resolve("tmp"))) {
+                    if (temporaryFiles.count() != 0) {
+                        throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.create(): Temporary files left behind");
+                    }
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: Files.list(): " + e.getMessage());
+                }
+            }
+            finally {
+                deleteRoot(root);
+            }
+        }
+    }
+
+    private static class DeleteBlobTest implements Test.Runnable {
+        @Override
+        public void run() {
+            Path root = createRoot();
+            try {
+                FileBlobRepository blobRepository = new FileBlobRepository(Map.of("path", root.toString()));
+                Blob blob;
+                boolean recentOutput;
+                boolean output;
+                try {
+                    blob = blobRepository.create(new ByteArrayInputStream(CONTENT), CONTENT.length);
+                    recentOutput = blobRepository.deleteById(blob.getId(), blob.getModifiedTime());
+                    output = blobRepository.deleteById(blob.getId(), blob.getModifiedTime() + 1);
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: FileBlobRepository.deleteById(): " + e.getMessage());
+                }
+                if (recentOutput) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.deleteById(): Return value within grace period");
+                }
+                if (!output) {
+                    throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.deleteById(): Return value");
+                }
+                try {
+                    if (blobRepository.readById(blob.getId()) != null) {
+                        throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.readById(): Return value after delete");
+                    }
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: FileBlobRepository.readById(): " + e.getMessage());
+                }
+            }
+            finally {
+                deleteRoot(root);
+            }
+        }
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("profile-blobs-test");
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Unexpected exception: Files.createTempDirectory(): " + e.getMessage());
+        }
+    }
+
+    private static void deleteRoot(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        catch (Exception ignored) { }
+    }
+}
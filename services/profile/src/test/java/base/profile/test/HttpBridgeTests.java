@@ -0,0 +1,59 @@
+package base.profile.test;
+
+import base.profile.service.HttpBridge;
+import base.profile.service.HttpClient;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+
+public class HttpBridgeTests {
+    public static final Test[] tests = new Test[] {
+            new Test("Time out unresponsive server", new TimeOutUnresponsiveServerTest())
+    };
+
+    private static class TimeOutUnresponsiveServerTest implements Test.Runnable {
+        @Override
+        public void run() {
+            HttpBridge httpBridge = new HttpBridge(Map.of("connectTimeout", "1000", "readTimeout", "200"));
+            try (ServerSocket serverSocket = new ServerSocket(0)) {
+                Thread acceptThread = new Thread(() -> {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        try {
+                            Thread.sleep(5000);
+                        }
+                        finally {
+                            socket.close();
+                        }
+                    }
+                    catch (Exception ignored) { }
+                });
+                acceptThread.setDaemon(true);
+                acceptThread.start();
+                long startTime = System.currentTimeMillis();
+                Exception exception = null;
+                try {
+                    httpBridge.sendRequest(new HttpClient.Request("localhost", serverSocket.getLocalPort(), "/", HttpClient.Method.GET, null, null, null));
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                long elapsedTime = System.currentTimeMillis() - startTime;
+                acceptThread.interrupt();
+                if (!(exception instanceof RuntimeException)) {
+                    throw new RuntimeException("Actual value does not match expected value: HttpBridge.sendRequest(): Exception");
+                }
+                if (elapsedTime >= 2000) {
+                    throw new RuntimeException("Actual value does not match expected value: HttpBridge.sendRequest(): Elapsed time");
+                }
+            }
+            catch (RuntimeException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ServerSocket: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package base.profile.test;
+
+import base.profile.service.LatencyTracker;
+
+public class LatencyTrackerTests {
+    public static final Test[] tests = new Test[] {
+            new Test("Reject invalid arguments", new RejectInvalidArgumentsTest()),
+            new Test("Track percentile", new TrackPercentileTest())
+    };
+
+    private static class RejectInvalidArgumentsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            for (double[] arguments : new double[][] { { 0, 0.9 }, { 100, 0 }, { 100, 1.1 } }) {
+                Exception exception = null;
+                try {
+                    new LatencyTracker((int) arguments[0], arguments[1]);
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (exception == null) {
+                    throw new RuntimeException("Actual value does not match expected value: LatencyTracker(): Exception for capacity " + (int) arguments[0] + " and percentile " + arguments[1]);
+                }
+            }
+        }
+    }
+
+    private static class TrackPercentileTest implements Test.Runnable {
+        @Override
+        public void run() {
+            LatencyTracker latencyTracker = new LatencyTracker(100, 0.9);
+            if (latencyTracker.getSampleCount() != 0 || latencyTracker.getPercentileValue() != -1) {
+                throw new RuntimeException("Actual value does not match expected value: LatencyTracker.getPercentileValue(): Return value without samples");
+            }
+            latencyTracker.record(1);
+            if (latencyTracker.getSampleCount() != 1 || latencyTracker.getPercentileValue() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: LatencyTracker.getPercentileValue(): Return value after first sample");
+            }
+            for (int i = 2; i <= 129; i++) {
+                latencyTracker.record(i);
+            }
+            if (latencyTracker.getSampleCount() != 100) {
+                throw new RuntimeException("Actual value does not match expected value: LatencyTracker.getSampleCount(): Return value at capacity");
+            }
+            if (latencyTracker.getPercentileValue() != 119) {
+                throw new RuntimeException("Actual value does not match expected value: LatencyTracker.getPercentileValue(): Return value over most recent samples");
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package base.profile.test;
+
+import base.profile.service.LoadBalancer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class LoadBalancerTests {
+    private static final String ENDPOINTS = "10.0.0.1:8000,10.0.0.2:8000";
+    public static final Test[] tests = new Test[] {
+            new Test("Reject invalid endpoints", new RejectInvalidEndpointsTest()),
+            new Test("Prefer less loaded endpoint", new PreferLessLoadedEndpointTest()),
+            new Test("Exclude endpoint", new ExcludeEndpointTest()),
+            new Test("Eject failing endpoint", new EjectFailingEndpointTest()),
+            new Test("Eject slow endpoint", new EjectSlowEndpointTest())
+    };
+
+    private static class RejectInvalidEndpointsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            for (String endpoints : new String[] { "", "10.0.0.1", "10.0.0.1:", ":8000", "10.0.0.1:port", "10.0.0.1:70000" }) {
+                Exception exception = null;
+                try {
+                    new LoadBalancer(Map.of("endpoints", endpoints)).close();
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (exception == null) {
+                    throw new RuntimeException("Actual value does not match expected value: LoadBalancer(): Exception for endpoints " + endpoints);
+                }
+            }
+        }
+    }
+
+    private static class PreferLessLoadedEndpointTest implements Test.Runnable {
+        @Override
+        public void run() {
+            try (LoadBalancer loadBalancer = new LoadBalancer(Map.of("endpoints", ENDPOINTS))) {
+                LoadBalancer.Endpoint busyEndpoint = loadBalancer.acquire();
+                for (int i = 0; i < 20; i++) {
+                    LoadBalancer.Endpoint endpoint = loadBalancer.acquire();
+                    if (endpoint == busyEndpoint) {
+                        throw new RuntimeException("Actual value does not match expected value: LoadBalancer.acquire(): Return value with outstanding request");
+                    }
+                    loadBalancer.release(endpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                }
+                loadBalancer.release(busyEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private static class ExcludeEndpointTest implements Test.Runnable {
+        @Override
+        public void run() {
+            try (LoadBalancer loadBalancer = new LoadBalancer(Map.of("endpoints", ENDPOINTS))) {
+                LoadBalancer.Endpoint excludedEndpoint = loadBalancer.acquire();
+                loadBalancer.release(excludedEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                for (int i = 0; i < 20; i++) {
+                    LoadBalancer.Endpoint endpoint = loadBalancer.acquire(excludedEndpoint);
+                    loadBalancer.release(endpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                    if (endpoint == excludedEndpoint) {
+                        throw new RuntimeException("Actual value does not match expected value: LoadBalancer.acquire(): Return value for excluded endpoint");
+                    }
+                }
+            }
+            try (LoadBalancer loadBalancer = new LoadBalancer(Map.of("endpoints", "10.0.0.1:8000"))) {
+                LoadBalancer.Endpoint onlyEndpoint = loadBalancer.acquire();
+                loadBalancer.release(onlyEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                LoadBalancer.Endpoint endpoint = loadBalancer.acquire(onlyEndpoint);
+                loadBalancer.release(endpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                if (endpoint != onlyEndpoint) {
+                    throw new RuntimeException("Actual value does not match expected value: LoadBalancer.acquire(): Return value for single excluded endpoint");
+                }
+            }
+        }
+    }
+
+    private static class EjectFailingEndpointTest implements Test.Runnable {
+        @Override
+        public void run() {
+            try (LoadBalancer loadBalancer = new LoadBalancer(Map.of("endpoints", ENDPOINTS, "ejectionConsecutiveFailures", "3", "ejectionDuration", "60000"))) {
+                LoadBalancer.Endpoint failingEndpoint = loadBalancer.acquire();
+                LoadBalancer.Endpoint healthyEndpoint = loadBalancer.acquire(failingEndpoint);
+                loadBalancer.release(failingEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                loadBalancer.release(healthyEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                for (int i = 0; i < 3; i++) {
+                    loadBalancer.release(loadBalancer.acquire(healthyEndpoint), true, TimeUnit.MILLISECONDS.toNanos(1));
+                }
+                assertEjected(loadBalancer, failingEndpoint);
+            }
+        }
+    }
+
+    private static class EjectSlowEndpointTest implements Test.Runnable {
+        @Override
+        public void run() {
+            try (LoadBalancer loadBalancer = new LoadBalancer(Map.of("endpoints", ENDPOINTS, "ejectionLatencyThreshold", "10", "ejectionDuration", "60000"))) {
+                LoadBalancer.Endpoint slowEndpoint = loadBalancer.acquire();
+                LoadBalancer.Endpoint healthyEndpoint = loadBalancer.acquire(slowEndpoint);
+                loadBalancer.release(slowEndpoint, false, TimeUnit.MILLISECONDS.toNanos(50));
+                loadBalancer.release(healthyEndpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+                for (int i = 0; i < 19; i++) {
+                    loadBalancer.release(loadBalancer.acquire(healthyEndpoint), false, TimeUnit.MILLISECONDS.toNanos(50));
+                }
+                assertEjected(loadBalancer, slowEndpoint);
+            }
+        }
+    }
+
+    private static void assertEjected(LoadBalancer loadBalancer, LoadBalancer.Endpoint ejectedEndpoint) {
+        Set<LoadBalancer.Endpoint> selections = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            LoadBalancer.Endpoint endpoint = loadBalancer.acquire();
+            loadBalancer.release(endpoint, false, TimeUnit.MILLISECONDS.toNanos(1));
+            selections.add(endpoint);
+        }
+        if (selections.contains(ejectedEndpoint) || selections.size() != 1) {
+            throw new RuntimeException("Actual value does not match expected value: LoadBalancer.acquire(): Return value after ejection");
+        }
+    }
+}
@@ -1,23 +1,60 @@
 package base.profile.test;
 
+import base.profile.repository.FileBlobRepository;
+import base.profile.service.AccountServiceClient;
+import base.profile.service.NameFilter;
+import base.profile.service.ProfileCache;
 import base.profile.service.ProfileManager;
+import base.profile.service.model.AccessDeniedException;
 import base.profile.service.model.Authority;
+import base.profile.service.model.ConflictException;
+import base.profile.service.model.IllegalArgumentException;
+import base.profile.service.model.NotFoundException;
 import base.profile.service.model.Profile;
 import base.profile.service.model.Role;
+import base.profile.service.model.UnavailableException;
 import base.profile.test.spy.AccountServiceClientSpy;
 import base.profile.test.spy.ProfileRepositorySpy;
+import base.profile.test.spy.TimeServiceSpy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class ProfileManagerTests {
     private static final String ACCOUNT_ID = "00000000-0000-0000-0000-000000000000";
     private static final String PROFILE_NAME = "Qwer";
+    private static final long TRUSTED_SESSION_AGE_MAX_VALUE = 300;
     private static final ProfileRepositorySpy profileRepositorySpy = new ProfileRepositorySpy();
     private static final AccountServiceClientSpy accountServiceClientSpy = new AccountServiceClientSpy();
-    private static final ProfileManager profileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy);
+    private static final TimeServiceSpy timeServiceSpy = new TimeServiceSpy();
+    private static final ProfileManager profileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy, timeServiceSpy, Map.of("trustedSessionAgeMaxValue", String.valueOf(TRUSTED_SESSION_AGE_MAX_VALUE)));
     public static final Test[] tests = new Test[] {
             new Test("Read profiles", new ReadProfilesTest()),
+            new Test("Read profiles through cache", new ReadProfilesThroughCacheTest()),
+            new Test("Rebuild name filter after invalidation gap", new RebuildNameFilterAfterInvalidationGapTest()),
+            new Test("Read profiles with invalid arguments", new ReadProfilesWithInvalidArgumentsTest()),
             new Test("Create profile", new CreateProfileTest()),
+            new Test("Create profile with trusted session", new CreateProfileWithTrustedSessionTest()),
+            new Test("Create existing profile", new CreateExistingProfileTest()),
+            new Test("Create profile while account checks are saturated", new CreateProfileWhileAccountChecksAreSaturatedTest()),
             new Test("Update profile", new UpdateProfileTest()),
-            new Test("Delete profile", new DeleteProfileTest())
+            new Test("Invalidate changed names on update", new InvalidateChangedNamesOnUpdateTest()),
+            new Test("Delete profile", new DeleteProfileTest()),
+            new Test("Delete profile of another account", new DeleteProfileOfAnotherAccountTest()),
+            new Test("Delete profiles", new DeleteProfilesTest()),
+            new Test("Update profile attribute", new UpdateProfileAttributeTest()),
+            new Test("Update profile attribute of another account", new UpdateProfileAttributeOfAnotherAccountTest())
     };
 
     private static class ReadProfilesTest implements Test.Runnable {
@@ -48,12 +85,129 @@ public class ProfileManagerTests {
         }
     }
 
+    private static class ReadProfilesThroughCacheTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String changedName = "changed";
+            ProfileManager cachingProfileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy, timeServiceSpy, new ProfileCache(Map.of()), Map.of());
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdAndNameReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
+            profileRepositorySpy.setUpdateByAccountIdReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
+            Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+            Profile[] firstOutput;
+            Profile[] secondOutput;
+            try {
+                firstOutput = cachingProfileManager.readProfiles(authority, ACCOUNT_ID, PROFILE_NAME);
+                secondOutput = cachingProfileManager.readProfiles(authority, ACCOUNT_ID, null);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileManager.readProfiles(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getReadByAccountIdAndNameInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIdAndName(): Invocation count");
+            }
+            if (!ACCOUNT_ID.equals(profileRepositorySpy.getReadByAccountIdAndNameAccountIdArgument()) || profileRepositorySpy.getReadByAccountIdAndNameNameArgument() != null) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIdAndName(): Arguments");
+            }
+            if (firstOutput.length != 1 || !PROFILE_NAME.equals(firstOutput[0].getName()) || secondOutput.length != 1 || !PROFILE_NAME.equals(secondOutput[0].getName())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.readProfiles(): Return value");
+            }
+            profileRepositorySpy.setReadByAccountIdAndNameReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, changedName) });
+            Profile[] thirdOutput;
+            try {
+                cachingProfileManager.updateProfile(authority, ACCOUNT_ID, new Profile(null, changedName));
+                thirdOutput = cachingProfileManager.readProfiles(authority, ACCOUNT_ID, null);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileManager.updateProfile(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getReadByAccountIdAndNameInvokeCount() != 2) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIdAndName(): Invocation count after update");
+            }
+            if (thirdOutput.length != 1 || !changedName.equals(thirdOutput[0].getName())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.readProfiles(): Return value after update");
+            }
+        }
+    }
+
+    private static class RebuildNameFilterAfterInvalidationGapTest implements Test.Runnable {
+        @Override
+        public void run() {
+            ProfileRepositorySpy filterProfileRepositorySpy = new ProfileRepositorySpy();
+            filterProfileRepositorySpy.setReadAfterAccountIdReturnValue(new base.profile.repository.model.Profile[0]);
+            ProfileCache profileCache = new ProfileCache(Map.of());
+            try (NameFilter nameFilter = new NameFilter(filterProfileRepositorySpy, Map.of("expectedInsertions", "1000"))) {
+                profileCache.setNameFilter(nameFilter);
+                nameFilter.start();
+                waitUntilReady(nameFilter);
+                if (!profileCache.isNameAbsent(PROFILE_NAME)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileCache.isNameAbsent(): Return value for unknown name");
+                }
+                filterProfileRepositorySpy.setReadAfterAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
+                profileCache.invalidateAll();
+                if (profileCache.isNameAbsent(PROFILE_NAME)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileCache.isNameAbsent(): Return value after invalidation gap");
+                }
+                waitUntilReady(nameFilter);
+                if (profileCache.isNameAbsent(PROFILE_NAME)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileCache.isNameAbsent(): Return value after rebuild");
+                }
+            }
+        }
+
+        private static void waitUntilReady(NameFilter nameFilter) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!nameFilter.isReady()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new RuntimeException("Actual value does not match expected value: NameFilter.isReady(): Return value after rebuild");
+                }
+                try {
+                    Thread.sleep(5);
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException("Unexpected exception: Thread.sleep(): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static class ReadProfilesWithInvalidArgumentsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String[][] invalidArguments = new String[][] {
+                    { "0-0-0-0-0", null },
+                    { "00000000-0000-0000-0000-00000000000g", null },
+                    { "00000000_0000-0000-0000-000000000000", null },
+                    { null, "Q" },
+                    { null, "Qwer!" },
+                    { null, "Qw\u00e9r" }
+            };
+            profileRepositorySpy.resetSpy();
+            for (String[] arguments : invalidArguments) {
+                Exception exception = null;
+                try {
+                    profileManager.readProfiles(null, arguments[0], arguments[1]);
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (!(exception instanceof IllegalArgumentException) || exception.getStackTrace().length != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileManager.readProfiles(): Exception for " + arguments[0] + ", " + arguments[1]);
+                }
+            }
+            if (profileRepositorySpy.getReadByAccountIdAndNameInvokeCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountIdAndName(): Invocation count");
+            }
+        }
+    }
+
     private static class CreateProfileTest implements Test.Runnable {
         @Override
         public void run() {
             profileRepositorySpy.resetSpy();
             accountServiceClientSpy.resetSpy();
             profileRepositorySpy.setCreateReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
+            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[0]);
             accountServiceClientSpy.setCheckForAccountExistenceReturnValue(true);
             Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
             Profile profile = new Profile(ACCOUNT_ID, PROFILE_NAME);
@@ -85,13 +239,133 @@ public class ProfileManagerTests {
         }
     }
 
+    private static class CreateProfileWithTrustedSessionTest implements Test.Runnable {
+        @Override
+        public void run() {
+            long authTime = 1;
+            profileRepositorySpy.resetSpy();
+            accountServiceClientSpy.resetSpy();
+            timeServiceSpy.resetSpy();
+            profileRepositorySpy.setCreateReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
+            timeServiceSpy.setCurrentTimeSecondsReturnValue(authTime + TRUSTED_SESSION_AGE_MAX_VALUE - 1);
+            Authority authority = new Authority(ACCOUNT_ID, Role.USER, authTime);
+            Profile profile = new Profile(ACCOUNT_ID, PROFILE_NAME);
+            Profile output;
+            try {
+                output = profileManager.createProfile(authority, profile);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileManager.createProfile(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getCreateInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.create(): Invocation count");
+            }
+            if (accountServiceClientSpy.getCheckForAccountExistenceInvokeCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: AccountServiceClient.checkForAccountExistence(): Invocation count");
+            }
+            if (output == null || !ACCOUNT_ID.equals(output.getAccountId()) || !PROFILE_NAME.equals(output.getName())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.createProfile(): Return value");
+            }
+        }
+    }
+
+    private static class CreateExistingProfileTest implements Test.Runnable {
+        @Override
+        public void run() {
+            profileRepositorySpy.resetSpy();
+            accountServiceClientSpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
+            accountServiceClientSpy.setCheckForAccountExistenceReturnValue(true);
+            Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+            Exception exception = null;
+            try {
+                profileManager.createProfile(authority, new Profile(ACCOUNT_ID, PROFILE_NAME));
+            }
+            catch (Exception e) {
+                exception = e;
+            }
+            if (!(exception instanceof ConflictException)) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.createProfile(): Exception");
+            }
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
+            }
+            if (profileRepositorySpy.getCreateInvokeCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.create(): Invocation count");
+            }
+        }
+    }
+
+    private static class CreateProfileWhileAccountChecksAreSaturatedTest implements Test.Runnable {
+        @Override
+        public void run() {
+            CountDownLatch checkStarted = new CountDownLatch(1);
+            CountDownLatch checkReleased = new CountDownLatch(1);
+            AccountServiceClient blockingAccountServiceClient = new AccountServiceClient() {
+                @Override
+                public boolean checkForAccountExistence(Authority authority, String id) {
+                    checkStarted.countDown();
+                    try {
+                        checkReleased.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                }
+
+                @Override
+                public Set<String> checkForAccountsExistence(Authority authority, Collection<String> ids) {
+                    return Set.copyOf(ids);
+                }
+            };
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[0]);
+            profileRepositorySpy.setCreateReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
+            Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+            try (ProfileManager saturatedProfileManager = new ProfileManager(profileRepositorySpy, blockingAccountServiceClient, timeServiceSpy, Map.of("createConcurrency", "1"))) {
+                Thread pendingCreate = new Thread(() -> {
+                    try {
+                        saturatedProfileManager.createProfile(authority, new Profile(ACCOUNT_ID, PROFILE_NAME));
+                    }
+                    catch (Exception ignored) { }
+                });
+                pendingCreate.start();
+                Exception exception = null;
+                try {
+                    if (!checkStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new RuntimeException("Actual value does not match expected value: AccountServiceClient.checkForAccountExistence(): Invocation count");
+                    }
+                    saturatedProfileManager.createProfile(authority, new Profile(ACCOUNT_ID, PROFILE_NAME));
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                finally {
+                    checkReleased.countDown();
+                }
+                if (!(exception instanceof UnavailableException)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileManager.createProfile(): Exception while saturated");
+                }
+                try {
+                    pendingCreate.join(5000);
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException("Unexpected exception: Thread.join(): " + e.getMessage());
+                }
+            }
+        }
+    }
+
     private static class UpdateProfileTest implements Test.Runnable {
         @Override
         public void run() {
             String changedName = "changed";
             profileRepositorySpy.resetSpy();
-            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
-            profileRepositorySpy.setUpdateByAccountIdReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, changedName));
+            profileRepositorySpy.setUpdateByAccountIdReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
             Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
             Profile profile = new Profile(null, changedName);
             Profile output;
@@ -101,18 +375,18 @@ public class ProfileManagerTests {
             catch (Exception e) {
                 throw new RuntimeException("Unexpected exception: ProfileManager.updateProfile(): " + e.getMessage());
             }
-            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 0) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
             }
-            if (!ACCOUNT_ID.equals(profileRepositorySpy.getReadByAccountIdAccountIdArgument())) {
-                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): accountId argument");
-            }
             if (profileRepositorySpy.getUpdateByAccountIdInvokeCount() != 1) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateByAccountId(): Invocation count");
             }
             if (!ACCOUNT_ID.equals(profileRepositorySpy.getUpdateByAccountIdAccountIdArgument())) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateByAccountId(): accountId argument");
             }
+            if (!ACCOUNT_ID.equals(profileRepositorySpy.getUpdateByAccountIdOwnerIdArgument())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateByAccountId(): ownerId argument");
+            }
             if (profileRepositorySpy.getUpdateByAccountIdProfileArgument() == null || profileRepositorySpy.getUpdateByAccountIdProfileArgument().getAccountId() != null || !changedName.equals(profileRepositorySpy.getUpdateByAccountIdProfileArgument().getName())) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateByAccountId(): profile argument");
             }
@@ -122,12 +396,38 @@ public class ProfileManagerTests {
         }
     }
 
+    private static class InvalidateChangedNamesOnUpdateTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String changedName = "changed";
+            ProfileCache profileCache = new ProfileCache(Map.of());
+            List<Collection<String>> invalidatedNames = new ArrayList<>();
+            boolean[] allNamesInvalidated = new boolean[1];
+            profileCache.setInvalidationListener((accountIds, names, allNames) -> {
+                invalidatedNames.add(names);
+                allNamesInvalidated[0] |= allNames;
+            });
+            ProfileManager cachingProfileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy, timeServiceSpy, profileCache, Map.of());
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setUpdateByAccountIdReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
+            Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+            try {
+                cachingProfileManager.updateProfile(authority, ACCOUNT_ID, new Profile(null, changedName));
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileManager.updateProfile(): " + e.getMessage());
+            }
+            if (invalidatedNames.size() != 1 || !List.copyOf(invalidatedNames.get(0)).equals(List.of(PROFILE_NAME, changedName)) || allNamesInvalidated[0]) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileCache.invalidate(): Invalidated names");
+            }
+        }
+    }
+
     private static class DeleteProfileTest implements Test.Runnable {
         @Override
         public void run() {
             profileRepositorySpy.resetSpy();
-            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
-            profileRepositorySpy.setDeleteByAccountIdReturnValue(1);
+            profileRepositorySpy.setDeleteByAccountIdReturnValue(new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME));
             Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
             try {
                 profileManager.deleteProfile(authority, ACCOUNT_ID);
@@ -135,18 +435,201 @@ public class ProfileManagerTests {
             catch (Exception e) {
                 throw new RuntimeException("Unexpected exception: ProfileManager.deleteProfile(): " + e.getMessage());
             }
-            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 0) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
             }
-            if (!ACCOUNT_ID.equals(profileRepositorySpy.getReadByAccountIdAccountIdArgument())) {
-                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): accountId argument");
-            }
             if (profileRepositorySpy.getDeleteByAccountIdInvokeCount() != 1) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountId(): Invocation count");
             }
             if (!ACCOUNT_ID.equals(profileRepositorySpy.getDeleteByAccountIdAccountIdArgument())) {
                 throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountId(): accountId argument");
             }
+            if (!ACCOUNT_ID.equals(profileRepositorySpy.getDeleteByAccountIdOwnerIdArgument())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountId(): ownerId argument");
+            }
+        }
+    }
+
+    private static class DeleteProfileOfAnotherAccountTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String otherAccountId = "00000000-0000-0000-0000-000000000001";
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setDeleteByAccountIdReturnValue(null);
+            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
+            Authority authority = new Authority(otherAccountId, Role.USER, 0);
+            Exception exception = null;
+            try {
+                profileManager.deleteProfile(authority, ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                exception = e;
+            }
+            if (!(exception instanceof AccessDeniedException)) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.deleteProfile(): Exception");
+            }
+            if (!otherAccountId.equals(profileRepositorySpy.getDeleteByAccountIdOwnerIdArgument())) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountId(): ownerId argument");
+            }
+            if (profileRepositorySpy.getReadByAccountIdInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readByAccountId(): Invocation count");
+            }
+            profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[0]);
+            exception = null;
+            try {
+                profileManager.deleteProfile(authority, ACCOUNT_ID);
+            }
+            catch (Exception e) {
+                exception = e;
+            }
+            if (!(exception instanceof NotFoundException)) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.deleteProfile(): Exception for missing profile");
+            }
+        }
+    }
+
+    private static class DeleteProfilesTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String[] accountIds = new String[] { ACCOUNT_ID, "00000000-0000-0000-0000-000000000001" };
+            profileRepositorySpy.resetSpy();
+            profileRepositorySpy.setDeleteByAccountIdsReturnValue(1);
+            Authority authority = new Authority(null, Role.SYSTEM, 0);
+            int output;
+            try {
+                output = profileManager.deleteProfiles(authority, accountIds);
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileManager.deleteProfiles(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getDeleteByAccountIdsInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountIds(): Invocation count");
+            }
+            if (profileRepositorySpy.getDeleteByAccountIdsAccountIdsArgument() != accountIds) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountIds(): accountIds argument");
+            }
+            if (output != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileManager.deleteProfiles(): Return value");
+            }
+        }
+    }
+
+    private static class UpdateProfileAttributeTest implements Test.Runnable {
+        @Override
+        public void run() {
+            byte[] content = "Lorem ipsum dolor sit amet".getBytes(StandardCharsets.UTF_8);
+            String contentId = "16aba5393ad72c0041f5600ad3c2c52ec437a2f0c7fc08fadfc3c0fe9641d7a3";
+            Path root = createBlobRoot();
+            try {
+                ProfileManager blobProfileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy, timeServiceSpy, null, new FileBlobRepository(Map.of("path", root.toString())), Map.of("bioMaxSize", String.valueOf(content.length)));
+                profileRepositorySpy.resetSpy();
+                profileRepositorySpy.setUpdateAttributeReturnValue(1);
+                Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+                try {
+                    blobProfileManager.updateProfileAttribute(authority, ACCOUNT_ID, "bio", "text/plain", new ByteArrayInputStream(content));
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: ProfileManager.updateProfileAttribute(): " + e.getMessage());
+                }
+                if (profileRepositorySpy.getUpdateAttributeInvokeCount() != 1) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): Invocation count");
+                }
+                if (!ACCOUNT_ID.equals(profileRepositorySpy.getUpdateAttributeOwnerIdArgument())) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): ownerId argument");
+                }
+                if (!"bio".equals(profileRepositorySpy.getUpdateAttributeNameArgument())) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): name argument");
+                }
+                if (!contentId.equals(profileRepositorySpy.getUpdateAttributeAttributeArgument().getBlobId())) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): attribute argument blobId");
+                }
+                if (!"text/plain; charset=utf-8".equals(profileRepositorySpy.getUpdateAttributeAttributeArgument().getContentType())) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): attribute argument contentType");
+                }
+                Exception exception = null;
+                try {
+                    blobProfileManager.updateProfileAttribute(authority, ACCOUNT_ID, "bio", "text/html", new ByteArrayInputStream(content));
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (!(exception instanceof IllegalArgumentException)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileManager.updateProfileAttribute(): Exception for invalid content type");
+                }
+                exception = null;
+                try {
+                    blobProfileManager.updateProfileAttribute(authority, ACCOUNT_ID, "bio", "text/plain", new ByteArrayInputStream(new byte[content.length + 1]));
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (!(exception instanceof IllegalArgumentException)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileManager.updateProfileAttribute(): Exception for oversized content");
+                }
+                if (profileRepositorySpy.getUpdateAttributeInvokeCount() != 1) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): Invocation count after rejected updates");
+                }
+            }
+            finally {
+                deleteBlobRoot(root);
+            }
+        }
+    }
+
+    private static class UpdateProfileAttributeOfAnotherAccountTest implements Test.Runnable {
+        @Override
+        public void run() {
+            String otherAccountId = "00000000-0000-0000-0000-000000000001";
+            Path root = createBlobRoot();
+            try {
+                ProfileManager blobProfileManager = new ProfileManager(profileRepositorySpy, accountServiceClientSpy, timeServiceSpy, null, new FileBlobRepository(Map.of("path", root.toString())), Map.of());
+                profileRepositorySpy.resetSpy();
+                profileRepositorySpy.setReadByAccountIdReturnValue(new base.profile.repository.model.Profile[] { new base.profile.repository.model.Profile(ACCOUNT_ID, PROFILE_NAME) });
+                Authority authority = new Authority(otherAccountId, Role.USER, 0);
+                Exception exception = null;
+                try {
+                    blobProfileManager.updateProfileAttribute(authority, ACCOUNT_ID, "avatar", "image/png", new ByteArrayInputStream(new byte[16]));
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (!(exception instanceof AccessDeniedException)) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileManager.updateProfileAttribute(): Exception");
+                }
+                if (profileRepositorySpy.getUpdateAttributeInvokeCount() != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.updateAttribute(): Invocation count");
+                }
+                try (Stream<Path> paths = Files.walk(root)) {
+                    if (paths.anyMatch(Files::isRegularFile)) {
+                        throw new RuntimeException("Actual value does not match expected value: FileBlobRepository.create(): Blob written for rejected update");
+                    }
+                }
+                catch (RuntimeException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: Files.walk(): " + e.getMessage());
+                }
+            }
+            finally {
+                deleteBlobRoot(root);
+            }
+        }
+    }
+
+    private static Path createBlobRoot() {
+        try {
+            return Files.createTempDirectory("profile-blobs-test");
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Unexpected exception: Files.createTempDirectory(): " + e.getMessage());
+        }
+    }
+
+    private static void deleteBlobRoot(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
         }
+        catch (Exception ignored) { }
     }
 }
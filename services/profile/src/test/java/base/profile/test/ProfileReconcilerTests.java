@@ -0,0 +1,173 @@
+package base.profile.test;
+
+import base.profile.repository.LockRepository;
+import base.profile.repository.model.Profile;
+import base.profile.service.ProfileCache;
+import base.profile.service.ProfileReconciler;
+import base.profile.test.spy.AccountServiceClientSpy;
+import base.profile.test.spy.ProfileRepositorySpy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class ProfileReconcilerTests {
+    private static final String ACCOUNT_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String ORPHANED_ACCOUNT_ID = "00000000-0000-0000-0000-000000000001";
+    private static final String PROFILE_NAME = "Qwer";
+    private static final String ORPHANED_PROFILE_NAME = "Asdf";
+    private static final Map<String, String> PROFILE_RECONCILER_CONFIG = Map.of("pageSize", "10", "rateLimit", "0", "interval", "0");
+    private static final ProfileRepositorySpy profileRepositorySpy = new ProfileRepositorySpy();
+    private static final AccountServiceClientSpy accountServiceClientSpy = new AccountServiceClientSpy();
+    public static final Test[] tests = new Test[] {
+            new Test("Purge orphaned profiles", new PurgeOrphanedProfilesTest()),
+            new Test("Skip page when account check fails", new SkipPageWhenAccountCheckFailsTest()),
+            new Test("Reject relative checkpoint path", new RejectRelativeCheckpointPathTest()),
+            new Test("Skip pass held by another replica", new SkipPassHeldByAnotherReplicaTest()),
+            new Test("Skip recently completed pass", new SkipRecentlyCompletedPassTest())
+    };
+
+    private static class PurgeOrphanedProfilesTest implements Test.Runnable {
+        @Override
+        public void run() {
+            ProfileCache profileCache = new ProfileCache(Map.of());
+            List<Collection<String>> invalidations = new ArrayList<>();
+            boolean[] allNamesInvalidated = new boolean[1];
+            profileCache.setInvalidationListener((accountIds, names, allNames) -> {
+                invalidations.add(accountIds);
+                invalidations.add(names);
+                allNamesInvalidated[0] |= allNames;
+            });
+            ProfileReconciler profileReconciler = new ProfileReconciler(profileRepositorySpy, accountServiceClientSpy, profileCache, null, PROFILE_RECONCILER_CONFIG);
+            profileRepositorySpy.resetSpy();
+            accountServiceClientSpy.resetSpy();
+            profileRepositorySpy.setReadAfterAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME), new Profile(ORPHANED_ACCOUNT_ID, ORPHANED_PROFILE_NAME) });
+            profileRepositorySpy.setDeleteByAccountIdsReturnValue(1);
+            accountServiceClientSpy.setCheckForAccountsExistenceReturnValue(Set.of(ACCOUNT_ID));
+            try {
+                profileReconciler.reconcile();
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileReconciler.reconcile(): " + e.getMessage());
+            }
+            if (profileRepositorySpy.getDeleteByAccountIdsInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountIds(): Invocation count");
+            }
+            if (!Arrays.equals(profileRepositorySpy.getDeleteByAccountIdsAccountIdsArgument(), new String[] { ORPHANED_ACCOUNT_ID })) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountIds(): accountIds argument");
+            }
+            if (invalidations.size() != 2 || !List.copyOf(invalidations.get(0)).equals(List.of(ORPHANED_ACCOUNT_ID)) || !List.copyOf(invalidations.get(1)).equals(List.of(ORPHANED_PROFILE_NAME)) || allNamesInvalidated[0]) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileCache.invalidateAccountIds(): Invalidation");
+            }
+            if (profileReconciler.getPassCount() != 1 || profileReconciler.getScannedCount() != 2 || profileReconciler.getOrphanCount() != 1 || profileReconciler.getDeletedCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileReconciler: Counts");
+            }
+        }
+    }
+
+    private static class SkipPageWhenAccountCheckFailsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            ProfileReconciler profileReconciler = new ProfileReconciler(profileRepositorySpy, accountServiceClientSpy, new ProfileCache(Map.of()), null, PROFILE_RECONCILER_CONFIG);
+            profileRepositorySpy.resetSpy();
+            accountServiceClientSpy.resetSpy();
+            profileRepositorySpy.setReadAfterAccountIdReturnValue(new Profile[] { new Profile(ACCOUNT_ID, PROFILE_NAME), new Profile(ORPHANED_ACCOUNT_ID, ORPHANED_PROFILE_NAME) });
+            accountServiceClientSpy.setCheckForAccountsExistenceException(new RuntimeException("Incomplete response received from account service"));
+            try {
+                profileReconciler.reconcile();
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileReconciler.reconcile(): " + e.getMessage());
+            }
+            if (accountServiceClientSpy.getCheckForAccountsExistenceInvokeCount() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: AccountServiceClient.checkForAccountsExistence(): Invocation count");
+            }
+            if (profileRepositorySpy.getDeleteByAccountIdsInvokeCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.deleteByAccountIds(): Invocation count");
+            }
+            if (profileReconciler.getSkippedCount() != 2 || profileReconciler.getDeletedCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileReconciler: Counts");
+            }
+        }
+    }
+
+    private static class RejectRelativeCheckpointPathTest implements Test.Runnable {
+        @Override
+        public void run() {
+            Exception exception = null;
+            try {
+                new ProfileReconciler(profileRepositorySpy, accountServiceClientSpy, Map.of("checkpointPath", "profile-reconciler.checkpoint"));
+            }
+            catch (Exception e) {
+                exception = e;
+            }
+            if (exception == null) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileReconciler(): Exception for relative checkpoint path");
+            }
+        }
+    }
+
+    private static class SkipPassHeldByAnotherReplicaTest implements Test.Runnable {
+        @Override
+        public void run() {
+            List<String> lockNames = new ArrayList<>();
+            LockRepository lockRepository = name -> {
+                lockNames.add(name);
+                return null;
+            };
+            ProfileReconciler profileReconciler = new ProfileReconciler(profileRepositorySpy, accountServiceClientSpy, null, null, lockRepository, PROFILE_RECONCILER_CONFIG);
+            profileRepositorySpy.resetSpy();
+            accountServiceClientSpy.resetSpy();
+            try {
+                profileReconciler.reconcile();
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: ProfileReconciler.reconcile(): " + e.getMessage());
+            }
+            if (lockNames.size() != 1) {
+                throw new RuntimeException("Actual value does not match expected value: LockRepository.tryLock(): Invocation count");
+            }
+            if (profileRepositorySpy.getReadAfterAccountIdInvokeCount() != 0 || profileReconciler.getPassCount() != 0) {
+                throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readAfterAccountId(): Invocation count");
+            }
+        }
+    }
+
+    private static class SkipRecentlyCompletedPassTest implements Test.Runnable {
+        @Override
+        public void run() {
+            Path checkpointPath;
+            try {
+                checkpointPath = Files.createTempFile("profile-reconciler", ".checkpoint");
+            }
+            catch (Exception e) {
+                throw new RuntimeException("Unexpected exception: Files.createTempFile(): " + e.getMessage());
+            }
+            try {
+                boolean[] lockReleased = new boolean[1];
+                LockRepository lockRepository = name -> () -> lockReleased[0] = true;
+                ProfileReconciler profileReconciler = new ProfileReconciler(profileRepositorySpy, accountServiceClientSpy, null, null, lockRepository, Map.of("pageSize", "10", "rateLimit", "0", "interval", "86400000", "checkpointPath", checkpointPath.toString()));
+                profileRepositorySpy.resetSpy();
+                accountServiceClientSpy.resetSpy();
+                try {
+                    profileReconciler.reconcile();
+                }
+                catch (Exception e) {
+                    throw new RuntimeException("Unexpected exception: ProfileReconciler.reconcile(): " + e.getMessage());
+                }
+                if (!lockReleased[0]) {
+                    throw new RuntimeException("Actual value does not match expected value: LockRepository.Lock.close(): Invocation count");
+                }
+                if (profileRepositorySpy.getReadAfterAccountIdInvokeCount() != 0 || profileReconciler.getPassCount() != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: ProfileRepository.readAfterAccountId(): Invocation count");
+                }
+            }
+            finally {
+                try {
+                    Files.deleteIfExists(checkpointPath);
+                }
+                catch (Exception ignored) { }
+            }
+        }
+    }
+}
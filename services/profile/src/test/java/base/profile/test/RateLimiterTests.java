@@ -0,0 +1,46 @@
+package base.profile.test;
+
+import base.profile.service.RateLimiter;
+import base.profile.service.model.Authority;
+import base.profile.service.model.Role;
+
+import java.util.Map;
+
+public class RateLimiterTests {
+    private static final String ACCOUNT_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String OTHER_ACCOUNT_ID = "00000000-0000-0000-0000-000000000001";
+    private static final int BURST = 5;
+    public static final Test[] tests = new Test[] {
+            new Test("Limit requests per principal", new LimitRequestsPerPrincipalTest())
+    };
+
+    private static class LimitRequestsPerPrincipalTest implements Test.Runnable {
+        @Override
+        public void run() {
+            RateLimiter rateLimiter = new RateLimiter(Map.of("userRate", "1", "userBurst", String.valueOf(BURST)));
+            try {
+                Authority authority = new Authority(ACCOUNT_ID, Role.USER, 0);
+                for (int i = 0; i < BURST; i++) {
+                    if (rateLimiter.acquire(authority) != 0) {
+                        throw new RuntimeException("Actual value does not match expected value: RateLimiter.acquire(): Return value within burst");
+                    }
+                }
+                if (rateLimiter.acquire(authority) <= 0) {
+                    throw new RuntimeException("Actual value does not match expected value: RateLimiter.acquire(): Return value after burst");
+                }
+                if (rateLimiter.acquire(new Authority(OTHER_ACCOUNT_ID, Role.USER, 0)) != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: RateLimiter.acquire(): Return value for other principal");
+                }
+                if (rateLimiter.acquire(new Authority(ACCOUNT_ID, Role.SYSTEM, 0)) != 0) {
+                    throw new RuntimeException("Actual value does not match expected value: RateLimiter.acquire(): Return value for system principal");
+                }
+                if (rateLimiter.getRejectedCount() != 1) {
+                    throw new RuntimeException("Actual value does not match expected value: RateLimiter.getRejectedCount(): Return value");
+                }
+            }
+            finally {
+                rateLimiter.close();
+            }
+        }
+    }
+}
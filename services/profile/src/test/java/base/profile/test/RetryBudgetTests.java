@@ -0,0 +1,63 @@
+package base.profile.test;
+
+import base.profile.service.RetryBudget;
+
+public class RetryBudgetTests {
+    public static final Test[] tests = new Test[] {
+            new Test("Reject invalid arguments", new RejectInvalidArgumentsTest()),
+            new Test("Limit retries to budget", new LimitRetriesToBudgetTest())
+    };
+
+    private static class RejectInvalidArgumentsTest implements Test.Runnable {
+        @Override
+        public void run() {
+            for (double[] arguments : new double[][] { { -0.1, 10 }, { 0.1, -1 } }) {
+                Exception exception = null;
+                try {
+                    new RetryBudget(arguments[0], arguments[1]);
+                }
+                catch (Exception e) {
+                    exception = e;
+                }
+                if (exception == null) {
+                    throw new RuntimeException("Actual value does not match expected value: RetryBudget(): Exception for ratio " + arguments[0] + " and max balance " + arguments[1]);
+                }
+            }
+        }
+    }
+
+    private static class LimitRetriesToBudgetTest implements Test.Runnable {
+        @Override
+        public void run() {
+            RetryBudget retryBudget = new RetryBudget(0.25, 2);
+            for (int i = 0; i < 2; i++) {
+                if (!retryBudget.tryAcquire()) {
+                    throw new RuntimeException("Actual value does not match expected value: RetryBudget.tryAcquire(): Return value within initial balance");
+                }
+            }
+            if (retryBudget.tryAcquire()) {
+                throw new RuntimeException("Actual value does not match expected value: RetryBudget.tryAcquire(): Return value after initial balance is spent");
+            }
+            for (int i = 0; i < 3; i++) {
+                retryBudget.recordRequest();
+            }
+            if (retryBudget.tryAcquire()) {
+                throw new RuntimeException("Actual value does not match expected value: RetryBudget.tryAcquire(): Return value below one retry");
+            }
+            retryBudget.recordRequest();
+            if (!retryBudget.tryAcquire() || retryBudget.tryAcquire()) {
+                throw new RuntimeException("Actual value does not match expected value: RetryBudget.tryAcquire(): Return value after earning one retry");
+            }
+            for (int i = 0; i < 100; i++) {
+                retryBudget.recordRequest();
+            }
+            int retryCount = 0;
+            while (retryBudget.tryAcquire()) {
+                retryCount++;
+            }
+            if (retryCount != 2) {
+                throw new RuntimeException("Actual value does not match expected value: RetryBudget.tryAcquire(): Retry count at max balance");
+            }
+        }
+    }
+}
@@ -1,10 +1,44 @@
 package base.profile.test;
 
-import static base.profile.test.ProfileManagerTests.tests;
-
 public class TestApplication {
     public static void main(String[] args) {
-        for (Test test : tests) {
+        for (Test test : ProfileManagerTests.tests) {
+            test.run();
+        }
+        for (Test test : CachingProfileRepositoryTests.tests) {
+            test.run();
+        }
+        for (Test test : BatchingProfileRepositoryTests.tests) {
+            test.run();
+        }
+        for (Test test : RateLimiterTests.tests) {
+            test.run();
+        }
+        for (Test test : ConcurrencyLimiterTests.tests) {
+            test.run();
+        }
+        for (Test test : FileBlobRepositoryTests.tests) {
+            test.run();
+        }
+        for (Test test : HttpBridgeTests.tests) {
+            test.run();
+        }
+        for (Test test : AccountServiceBridgeTests.tests) {
+            test.run();
+        }
+        for (Test test : ProfileReconcilerTests.tests) {
+            test.run();
+        }
+        for (Test test : LoadBalancerTests.tests) {
+            test.run();
+        }
+        for (Test test : LatencyTrackerTests.tests) {
+            test.run();
+        }
+        for (Test test : RetryBudgetTests.tests) {
+            test.run();
+        }
+        for (Test test : BackgroundThrottleTests.tests) {
             test.run();
         }
     }
@@ -3,11 +3,19 @@ package base.profile.test.spy;
 import base.profile.service.AccountServiceClient;
 import base.profile.service.model.Authority;
 
+import java.util.Collection;
+import java.util.Set;
+
 public class AccountServiceClientSpy implements AccountServiceClient {
     private boolean checkForAccountExistenceReturnValue;
     private int checkForAccountExistenceInvokeCount;
     private Authority checkForAccountExistenceAuthorityArgument;
     private String checkForAccountExistenceIdArgument;
+    private Set<String> checkForAccountsExistenceReturnValue;
+    private int checkForAccountsExistenceInvokeCount;
+    private Authority checkForAccountsExistenceAuthorityArgument;
+    private Collection<String> checkForAccountsExistenceIdsArgument;
+    private RuntimeException checkForAccountsExistenceException;
 
     @Override
     public boolean checkForAccountExistence(Authority authority, String id) {
@@ -17,10 +25,25 @@ public class AccountServiceClientSpy implements AccountServiceClient {
         return checkForAccountExistenceReturnValue;
     }
 
+    @Override
+    public Set<String> checkForAccountsExistence(Authority authority, Collection<String> ids) {
+        checkForAccountsExistenceInvokeCount++;
+        checkForAccountsExistenceAuthorityArgument = authority;
+        checkForAccountsExistenceIdsArgument = ids;
+        if (checkForAccountsExistenceException != null) {
+            throw checkForAccountsExistenceException;
+        }
+        return checkForAccountsExistenceReturnValue;
+    }
+
     public void resetSpy() {
         checkForAccountExistenceInvokeCount = 0;
         checkForAccountExistenceAuthorityArgument = null;
         checkForAccountExistenceIdArgument = null;
+        checkForAccountsExistenceInvokeCount = 0;
+        checkForAccountsExistenceAuthorityArgument = null;
+        checkForAccountsExistenceIdsArgument = null;
+        checkForAccountsExistenceException = null;
     }
 
     public void setCheckForAccountExistenceReturnValue(boolean checkForAccountExistenceReturnValue) {
@@ -38,4 +61,24 @@ public class AccountServiceClientSpy implements AccountServiceClient {
     public String getCheckForAccountExistenceIdArgument() {
         return checkForAccountExistenceIdArgument;
     }
+
+    public void setCheckForAccountsExistenceReturnValue(Set<String> checkForAccountsExistenceReturnValue) {
+        this.checkForAccountsExistenceReturnValue = checkForAccountsExistenceReturnValue;
+    }
+
+    public int getCheckForAccountsExistenceInvokeCount() {
+        return checkForAccountsExistenceInvokeCount;
+    }
+
+    public Authority getCheckForAccountsExistenceAuthorityArgument() {
+        return checkForAccountsExistenceAuthorityArgument;
+    }
+
+    public Collection<String> getCheckForAccountsExistenceIdsArgument() {
+        return checkForAccountsExistenceIdsArgument;
+    }
+
+    public void setCheckForAccountsExistenceException(RuntimeException checkForAccountsExistenceException) {
+        this.checkForAccountsExistenceException = checkForAccountsExistenceException;
+    }
 }
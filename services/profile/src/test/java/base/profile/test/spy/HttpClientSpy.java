@@ -0,0 +1,58 @@
+package base.profile.test.spy;
+
+import base.profile.service.HttpClient;
+
+public class HttpClientSpy implements HttpClient {
+    private Response[] sendRequestReturnValues = new Response[] { null };
+    private long[] sendRequestDelays = new long[] { 0 };
+    private int sendRequestInvokeCount;
+    private Request sendRequestRequestArgument;
+
+    @Override
+    public Response sendRequest(Request request) {
+        Response returnValue;
+        long delay;
+        synchronized (this) {
+            int index = sendRequestInvokeCount++;
+            sendRequestRequestArgument = request;
+            returnValue = sendRequestReturnValues[Math.min(index, sendRequestReturnValues.length - 1)];
+            delay = sendRequestDelays[Math.min(index, sendRequestDelays.length - 1)];
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while sending request");
+            }
+        }
+        return returnValue;
+    }
+
+    public synchronized void resetSpy() {
+        sendRequestInvokeCount = 0;
+        sendRequestRequestArgument = null;
+        sendRequestDelays = new long[] { 0 };
+    }
+
+    public synchronized void setSendRequestReturnValue(Response sendRequestReturnValue) {
+        sendRequestReturnValues = new Response[] { sendRequestReturnValue };
+    }
+
+    public synchronized void setSendRequestReturnValues(Response... sendRequestReturnValues) {
+        this.sendRequestReturnValues = sendRequestReturnValues;
+    }
+
+    public synchronized void setSendRequestDelays(long... sendRequestDelays) {
+        this.sendRequestDelays = sendRequestDelays;
+    }
+
+    public synchronized int getSendRequestInvokeCount() {
+        return sendRequestInvokeCount;
+    }
+
+    public synchronized Request getSendRequestRequestArgument() {
+        return sendRequestRequestArgument;
+    }
+}
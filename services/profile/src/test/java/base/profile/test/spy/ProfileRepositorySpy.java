@@ -2,25 +2,52 @@ package base.profile.test.spy;
 
 import base.profile.repository.ProfileRepository;
 import base.profile.repository.model.Profile;
+import base.profile.repository.model.ProfileAttribute;
 
 public class ProfileRepositorySpy implements ProfileRepository {
     private Profile[] readByAccountIdReturnValue;
     private int readByAccountIdInvokeCount;
     private String readByAccountIdAccountIdArgument;
+    private Profile[] readByAccountIdsReturnValue;
+    private int readByAccountIdsInvokeCount;
+    private String[] readByAccountIdsAccountIdsArgument;
+    private Error readByAccountIdsError;
     private Profile[] readByAccountIdAndNameReturnValue;
     private int readByAccountIdAndNameInvokeCount;
     private String readByAccountIdAndNameAccountIdArgument;
     private String readByAccountIdAndNameNameArgument;
+    private Profile[] readAfterAccountIdReturnValue;
+    private int readAfterAccountIdInvokeCount;
+    private String readAfterAccountIdAccountIdArgument;
+    private int readAfterAccountIdMaxCountArgument;
     private Profile createReturnValue;
     private int createInvokeCount;
     private Profile createProfileArgument;
     private Profile updateByAccountIdReturnValue;
     private int updateByAccountIdInvokeCount;
     private String updateByAccountIdAccountIdArgument;
+    private String updateByAccountIdOwnerIdArgument;
     private Profile updateByAccountIdProfileArgument;
-    private int deleteByAccountIdReturnValue;
+    private Profile deleteByAccountIdReturnValue;
     private int deleteByAccountIdInvokeCount;
     private String deleteByAccountIdAccountIdArgument;
+    private String deleteByAccountIdOwnerIdArgument;
+    private int deleteByAccountIdsReturnValue;
+    private int deleteByAccountIdsInvokeCount;
+    private String[] deleteByAccountIdsAccountIdsArgument;
+    private ProfileAttribute readAttributeReturnValue;
+    private int readAttributeInvokeCount;
+    private String readAttributeAccountIdArgument;
+    private String readAttributeNameArgument;
+    private int updateAttributeReturnValue;
+    private int updateAttributeInvokeCount;
+    private String updateAttributeAccountIdArgument;
+    private String updateAttributeOwnerIdArgument;
+    private String updateAttributeNameArgument;
+    private ProfileAttribute updateAttributeAttributeArgument;
+    private String[] readReferencedBlobIdsReturnValue;
+    private int readReferencedBlobIdsInvokeCount;
+    private String[] readReferencedBlobIdsBlobIdsArgument;
 
     @Override
     public Profile[] readByAccountId(String accountId) {
@@ -29,6 +56,16 @@ public class ProfileRepositorySpy implements ProfileRepository {
         return readByAccountIdReturnValue;
     }
 
+    @Override
+    public synchronized Profile[] readByAccountIds(String[] accountIds) {
+        readByAccountIdsInvokeCount++;
+        readByAccountIdsAccountIdsArgument = accountIds;
+        if (readByAccountIdsError != null) {
+            throw readByAccountIdsError;
+        }
+        return readByAccountIdsReturnValue;
+    }
+
     @Override
     public Profile[] readByAccountIdAndName(String accountId, String name) {
         readByAccountIdAndNameInvokeCount++;
@@ -37,6 +74,14 @@ public class ProfileRepositorySpy implements ProfileRepository {
         return readByAccountIdAndNameReturnValue;
     }
 
+    @Override
+    public Profile[] readAfterAccountId(String accountId, int maxCount) {
+        readAfterAccountIdInvokeCount++;
+        readAfterAccountIdAccountIdArgument = accountId;
+        readAfterAccountIdMaxCountArgument = maxCount;
+        return readAfterAccountIdReturnValue;
+    }
+
     @Override
     public Profile create(Profile profile) {
         createInvokeCount++;
@@ -45,33 +90,87 @@ public class ProfileRepositorySpy implements ProfileRepository {
     }
 
     @Override
-    public Profile updateByAccountId(String accountId, Profile profile) {
+    public Profile updateByAccountId(String accountId, String ownerId, Profile profile) {
         updateByAccountIdInvokeCount++;
         updateByAccountIdAccountIdArgument = accountId;
+        updateByAccountIdOwnerIdArgument = ownerId;
         updateByAccountIdProfileArgument = profile;
         return updateByAccountIdReturnValue;
     }
 
     @Override
-    public int deleteByAccountId(String accountId) {
+    public Profile deleteByAccountId(String accountId, String ownerId) {
         deleteByAccountIdInvokeCount++;
         deleteByAccountIdAccountIdArgument = accountId;
+        deleteByAccountIdOwnerIdArgument = ownerId;
         return deleteByAccountIdReturnValue;
     }
 
+    @Override
+    public int deleteByAccountIds(String[] accountIds) {
+        deleteByAccountIdsInvokeCount++;
+        deleteByAccountIdsAccountIdsArgument = accountIds;
+        return deleteByAccountIdsReturnValue;
+    }
+
+    @Override
+    public ProfileAttribute readAttribute(String accountId, String name) {
+        readAttributeInvokeCount++;
+        readAttributeAccountIdArgument = accountId;
+        readAttributeNameArgument = name;
+        return readAttributeReturnValue;
+    }
+
+    @Override
+    public int updateAttribute(String accountId, String ownerId, String name, ProfileAttribute attribute) {
+        updateAttributeInvokeCount++;
+        updateAttributeAccountIdArgument = accountId;
+        updateAttributeOwnerIdArgument = ownerId;
+        updateAttributeNameArgument = name;
+        updateAttributeAttributeArgument = attribute;
+        return updateAttributeReturnValue;
+    }
+
+    @Override
+    public String[] readReferencedBlobIds(String[] blobIds) {
+        readReferencedBlobIdsInvokeCount++;
+        readReferencedBlobIdsBlobIdsArgument = blobIds;
+        return readReferencedBlobIdsReturnValue;
+    }
+
     public void resetSpy() {
         readByAccountIdInvokeCount = 0;
         readByAccountIdAccountIdArgument = null;
+        readByAccountIdsInvokeCount = 0;
+        readByAccountIdsAccountIdsArgument = null;
+        readByAccountIdsError = null;
         readByAccountIdAndNameInvokeCount = 0;
         readByAccountIdAndNameAccountIdArgument = null;
         readByAccountIdAndNameNameArgument = null;
+        readAfterAccountIdInvokeCount = 0;
+        readAfterAccountIdAccountIdArgument = null;
+        readAfterAccountIdMaxCountArgument = 0;
         createInvokeCount = 0;
         createProfileArgument = null;
         updateByAccountIdInvokeCount = 0;
         updateByAccountIdAccountIdArgument = null;
+        updateByAccountIdOwnerIdArgument = null;
         updateByAccountIdProfileArgument = null;
         deleteByAccountIdInvokeCount = 0;
         deleteByAccountIdAccountIdArgument = null;
+        deleteByAccountIdOwnerIdArgument = null;
+        deleteByAccountIdsInvokeCount = 0;
+        deleteByAccountIdsAccountIdsArgument = null;
+        readAttributeInvokeCount = 0;
+        readAttributeAccountIdArgument = null;
+        readAttributeNameArgument = null;
+        updateAttributeInvokeCount = 0;
+        updateAttributeAccountIdArgument = null;
+        updateAttributeOwnerIdArgument = null;
+        updateAttributeNameArgument = null;
+        updateAttributeAttributeArgument = null;
+        readReferencedBlobIdsInvokeCount = 0;
+        readReferencedBlobIdsBlobIdsArgument = null;
     }
 
     public void setReadByAccountIdReturnValue(Profile[] readByAccountIdReturnValue) {
@@ -86,6 +185,22 @@ public class ProfileRepositorySpy implements ProfileRepository {
         return readByAccountIdAccountIdArgument;
     }
 
+    public void setReadByAccountIdsReturnValue(Profile[] readByAccountIdsReturnValue) {
+        this.readByAccountIdsReturnValue = readByAccountIdsReturnValue;
+    }
+
+    public synchronized int getReadByAccountIdsInvokeCount() {
+        return readByAccountIdsInvokeCount;
+    }
+
+    public synchronized String[] getReadByAccountIdsAccountIdsArgument() {
+        return readByAccountIdsAccountIdsArgument;
+    }
+
+    public synchronized void setReadByAccountIdsError(Error readByAccountIdsError) {
+        this.readByAccountIdsError = readByAccountIdsError;
+    }
+
     public void setReadByAccountIdAndNameReturnValue(Profile[] readByAccountIdAndNameReturnValue) {
         this.readByAccountIdAndNameReturnValue = readByAccountIdAndNameReturnValue;
     }
@@ -102,6 +217,22 @@ public class ProfileRepositorySpy implements ProfileRepository {
         return readByAccountIdAndNameNameArgument;
     }
 
+    public void setReadAfterAccountIdReturnValue(Profile[] readAfterAccountIdReturnValue) {
+        this.readAfterAccountIdReturnValue = readAfterAccountIdReturnValue;
+    }
+
+    public int getReadAfterAccountIdInvokeCount() {
+        return readAfterAccountIdInvokeCount;
+    }
+
+    public String getReadAfterAccountIdAccountIdArgument() {
+        return readAfterAccountIdAccountIdArgument;
+    }
+
+    public int getReadAfterAccountIdMaxCountArgument() {
+        return readAfterAccountIdMaxCountArgument;
+    }
+
     public void setCreateReturnValue(Profile createReturnValue) {
         this.createReturnValue = createReturnValue;
     }
@@ -126,11 +257,15 @@ public class ProfileRepositorySpy implements ProfileRepository {
         return updateByAccountIdAccountIdArgument;
     }
 
+    public String getUpdateByAccountIdOwnerIdArgument() {
+        return updateByAccountIdOwnerIdArgument;
+    }
+
     public Profile getUpdateByAccountIdProfileArgument() {
         return updateByAccountIdProfileArgument;
     }
 
-    public void setDeleteByAccountIdReturnValue(int deleteByAccountIdReturnValue) {
+    public void setDeleteByAccountIdReturnValue(Profile deleteByAccountIdReturnValue) {
         this.deleteByAccountIdReturnValue = deleteByAccountIdReturnValue;
     }
 
@@ -141,4 +276,72 @@ public class ProfileRepositorySpy implements ProfileRepository {
     public String getDeleteByAccountIdAccountIdArgument() {
         return deleteByAccountIdAccountIdArgument;
     }
+
+    public String getDeleteByAccountIdOwnerIdArgument() {
+        return deleteByAccountIdOwnerIdArgument;
+    }
+
+    public void setDeleteByAccountIdsReturnValue(int deleteByAccountIdsReturnValue) {
+        this.deleteByAccountIdsReturnValue = deleteByAccountIdsReturnValue;
+    }
+
+    public int getDeleteByAccountIdsInvokeCount() {
+        return deleteByAccountIdsInvokeCount;
+    }
+
+    public String[] getDeleteByAccountIdsAccountIdsArgument() {
+        return deleteByAccountIdsAccountIdsArgument;
+    }
+
+    public void setReadAttributeReturnValue(ProfileAttribute readAttributeReturnValue) {
+        this.readAttributeReturnValue = readAttributeReturnValue;
+    }
+
+    public int getReadAttributeInvokeCount() {
+        return readAttributeInvokeCount;
+    }
+
+    public String getReadAttributeAccountIdArgument() {
+        return readAttributeAccountIdArgument;
+    }
+
+    public String getReadAttributeNameArgument() {
+        return readAttributeNameArgument;
+    }
+
+    public void setUpdateAttributeReturnValue(int updateAttributeReturnValue) {
+        this.updateAttributeReturnValue = updateAttributeReturnValue;
+    }
+
+    public int getUpdateAttributeInvokeCount() {
+        return updateAttributeInvokeCount;
+    }
+
+    public String getUpdateAttributeAccountIdArgument() {
+        return updateAttributeAccountIdArgument;
+    }
+
+    public String getUpdateAttributeOwnerIdArgument() {
+        return updateAttributeOwnerIdArgument;
+    }
+
+    public String getUpdateAttributeNameArgument() {
+        return updateAttributeNameArgument;
+    }
+
+    public ProfileAttribute getUpdateAttributeAttributeArgument() {
+        return updateAttributeAttributeArgument;
+    }
+
+    public void setReadReferencedBlobIdsReturnValue(String[] readReferencedBlobIdsReturnValue) {
+        this.readReferencedBlobIdsReturnValue = readReferencedBlobIdsReturnValue;
+    }
+
+    public int getReadReferencedBlobIdsInvokeCount() {
+        return readReferencedBlobIdsInvokeCount;
+    }
+
+    public String[] getReadReferencedBlobIdsBlobIdsArgument() {
+        return readReferencedBlobIdsBlobIdsArgument;
+    }
 }
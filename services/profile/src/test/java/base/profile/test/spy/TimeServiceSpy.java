@@ -0,0 +1,26 @@
+package base.profile.test.spy;
+
+import base.profile.service.TimeService;
+
+public class TimeServiceSpy implements TimeService {
+    private long currentTimeSecondsReturnValue;
+    private int currentTimeSecondsInvokeCount;
+
+    @Override
+    public long currentTimeSeconds() {
+        currentTimeSecondsInvokeCount++;
+        return currentTimeSecondsReturnValue;
+    }
+
+    public void resetSpy() {
+        currentTimeSecondsInvokeCount = 0;
+    }
+
+    public void setCurrentTimeSecondsReturnValue(long currentTimeSecondsReturnValue) {
+        this.currentTimeSecondsReturnValue = currentTimeSecondsReturnValue;
+    }
+
+    public int getCurrentTimeSecondsInvokeCount() {
+        return currentTimeSecondsInvokeCount;
+    }
+}